@@ -0,0 +1,14 @@
+package com.eduplatform.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Async Configuration.
+ * Enables @Async handlers; they run on Spring Boot's auto-configured task executor
+ * (tunable through spring.task.execution.*).
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
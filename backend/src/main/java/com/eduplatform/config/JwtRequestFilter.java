@@ -116,7 +116,8 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             path.startsWith("/auth/verify-email") ||
             path.startsWith("/auth/resend-verification") ||
             path.startsWith("/auth/health") ||
-            path.startsWith("/auth/mfa/") ||
+            path.startsWith("/auth/mfa/send-token") ||
+            path.startsWith("/auth/mfa/verify-token") ||
             
             // Actuator endpoints
             path.equals("/actuator/health") ||
@@ -3,8 +3,14 @@ package com.eduplatform.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Rate Limiting Configuration Properties
+ * When no policies are configured, the policy table is derived from the
+ * *RequestsPerMinute settings (see RateLimitPolicyEngine).
  */
 @Configuration
 @ConfigurationProperties(prefix = "app.api.rate-limit")
@@ -15,6 +21,16 @@ public class RateLimitProperties {
     private int authRequestsPerMinute = 10;
     private int publicRequestsPerMinute = 200;
     private int adminRequestsPerMinute = 500;
+    private int authAccountRequestsPerMinute = 5;
+    private int authSubnetRequestsPerMinute = 60;
+    private long authBackoffBaseSeconds = 2;
+    private long authBackoffMaxSeconds = 900;
+    private int leaseBatchSize = 5;
+    private long leaseTtlMs = 2000;
+    private int maxBuckets = 100_000;
+    private long bucketIdleSeconds = 600;
+    private List<String> apiKeys = new ArrayList<>();
+    private List<Policy> policies = new ArrayList<>();
 
     // Getters and setters
     public boolean isEnabled() { return enabled; }
@@ -25,6 +41,17 @@ public class RateLimitProperties {
         this.defaultRequestsPerMinute = defaultRequestsPerMinute; 
     }
     
+    /**
+     * Former name of default-requests-per-minute; still bound so existing configuration
+     * (e.g. APP_API_RATE_LIMIT_REQUESTS_PER_MINUTE) is not silently ignored
+     */
+    @Deprecated
+    public int getRequestsPerMinute() { return defaultRequestsPerMinute; }
+    @Deprecated
+    public void setRequestsPerMinute(int requestsPerMinute) { 
+        this.defaultRequestsPerMinute = requestsPerMinute; 
+    }
+    
     public int getAuthRequestsPerMinute() { return authRequestsPerMinute; }
     public void setAuthRequestsPerMinute(int authRequestsPerMinute) { 
         this.authRequestsPerMinute = authRequestsPerMinute; 
@@ -39,4 +66,130 @@ public class RateLimitProperties {
     public void setAdminRequestsPerMinute(int adminRequestsPerMinute) { 
         this.adminRequestsPerMinute = adminRequestsPerMinute; 
     }
-}
\ No newline at end of file
+    
+    public int getAuthAccountRequestsPerMinute() { return authAccountRequestsPerMinute; }
+    public void setAuthAccountRequestsPerMinute(int authAccountRequestsPerMinute) { 
+        this.authAccountRequestsPerMinute = authAccountRequestsPerMinute; 
+    }
+    
+    public int getAuthSubnetRequestsPerMinute() { return authSubnetRequestsPerMinute; }
+    public void setAuthSubnetRequestsPerMinute(int authSubnetRequestsPerMinute) { 
+        this.authSubnetRequestsPerMinute = authSubnetRequestsPerMinute; 
+    }
+    
+    public long getAuthBackoffBaseSeconds() { return authBackoffBaseSeconds; }
+    public void setAuthBackoffBaseSeconds(long authBackoffBaseSeconds) { 
+        this.authBackoffBaseSeconds = authBackoffBaseSeconds; 
+    }
+    
+    public long getAuthBackoffMaxSeconds() { return authBackoffMaxSeconds; }
+    public void setAuthBackoffMaxSeconds(long authBackoffMaxSeconds) { 
+        this.authBackoffMaxSeconds = authBackoffMaxSeconds; 
+    }
+    
+    public int getLeaseBatchSize() { return leaseBatchSize; }
+    public void setLeaseBatchSize(int leaseBatchSize) { 
+        this.leaseBatchSize = leaseBatchSize; 
+    }
+    
+    public long getLeaseTtlMs() { return leaseTtlMs; }
+    public void setLeaseTtlMs(long leaseTtlMs) { 
+        this.leaseTtlMs = leaseTtlMs; 
+    }
+    
+    public int getMaxBuckets() { return maxBuckets; }
+    public void setMaxBuckets(int maxBuckets) { 
+        this.maxBuckets = maxBuckets; 
+    }
+    
+    public long getBucketIdleSeconds() { return bucketIdleSeconds; }
+    public void setBucketIdleSeconds(long bucketIdleSeconds) { 
+        this.bucketIdleSeconds = bucketIdleSeconds; 
+    }
+    
+    /**
+     * Issued API keys; an X-API-KEY header only selects the API_KEY client type and bucket when it is one of these
+     */
+    public List<String> getApiKeys() { return apiKeys; }
+    public void setApiKeys(List<String> apiKeys) { 
+        this.apiKeys = apiKeys; 
+    }
+    
+    public List<Policy> getPolicies() { return policies; }
+    public void setPolicies(List<Policy> policies) { 
+        this.policies = policies; 
+    }
+
+    /**
+     * One row of the policy table: route pattern x methods x roles x client types -> limits.
+     * Empty methods/roles/clientTypes match anything.
+     */
+    public static class Policy {
+        
+        private String name;
+        private String route = "/**";
+        private List<String> methods = new ArrayList<>();
+        private List<String> roles = new ArrayList<>();
+        private List<String> clientTypes = new ArrayList<>();
+        private boolean perRoute = false;
+        private List<Limit> limits = new ArrayList<>();
+        
+        public Policy() {
+        }
+        
+        public Policy(String name, String route, List<String> methods, List<String> roles,
+                      List<String> clientTypes, boolean perRoute, List<Limit> limits) {
+            this.name = name;
+            this.route = route;
+            this.methods = methods;
+            this.roles = roles;
+            this.clientTypes = clientTypes;
+            this.perRoute = perRoute;
+            this.limits = limits;
+        }
+        
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        
+        public String getRoute() { return route; }
+        public void setRoute(String route) { this.route = route; }
+        
+        public List<String> getMethods() { return methods; }
+        public void setMethods(List<String> methods) { this.methods = methods; }
+        
+        public List<String> getRoles() { return roles; }
+        public void setRoles(List<String> roles) { this.roles = roles; }
+        
+        public List<String> getClientTypes() { return clientTypes; }
+        public void setClientTypes(List<String> clientTypes) { this.clientTypes = clientTypes; }
+        
+        public boolean isPerRoute() { return perRoute; }
+        public void setPerRoute(boolean perRoute) { this.perRoute = perRoute; }
+        
+        public List<Limit> getLimits() { return limits; }
+        public void setLimits(List<Limit> limits) { this.limits = limits; }
+    }
+
+    /**
+     * A bandwidth: capacity tokens per period (short period = burst, long period = sustained)
+     */
+    public static class Limit {
+        
+        private long capacity;
+        private Duration period = Duration.ofMinutes(1);
+        
+        public Limit() {
+        }
+        
+        public Limit(long capacity, Duration period) {
+            this.capacity = capacity;
+            this.period = period;
+        }
+        
+        public long getCapacity() { return capacity; }
+        public void setCapacity(long capacity) { this.capacity = capacity; }
+        
+        public Duration getPeriod() { return period; }
+        public void setPeriod(Duration period) { this.period = period; }
+    }
+}
@@ -0,0 +1,14 @@
+package com.eduplatform.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling Configuration.
+ * Enables @Scheduled background jobs (write-behind flushes, reconciliation);
+ * the pool is tunable through spring.task.scheduling.*.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
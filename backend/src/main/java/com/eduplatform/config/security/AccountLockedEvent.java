@@ -0,0 +1,9 @@
+package com.eduplatform.config.security;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when repeated login failures lock an account.
+ */
+public record AccountLockedEvent(String email, LocalDateTime lockedUntil) {
+}
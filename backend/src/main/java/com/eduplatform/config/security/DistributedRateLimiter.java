@@ -0,0 +1,252 @@
+package com.eduplatform.config.security;
+
+import com.eduplatform.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Distributed Rate Limiter
+ * Token buckets shared by all nodes through Redis. Each node leases small batches of tokens
+ * (app.api.rate-limit.lease-batch-size) and serves requests from the lease locally; when a lease
+ * runs low it is topped up in the background, so most requests never touch Redis.
+ * Unused leased tokens are dropped after lease-ttl-ms so idle nodes do not hoard capacity.
+ * Both the shared state and the node-local fallback use GCRA (one timestamp per key).
+ * If Redis is unavailable (or the script returns no result) the limiter degrades to the
+ * node-local GcraRateLimiter.
+ * Per-node state is held in size-bounded caches that drop idle buckets, exposed as
+ * cache.size / cache.evictions with cache=ratelimit.leases|ratelimit.local.
+ */
+@Slf4j
+@Component
+public class DistributedRateLimiter implements DisposableBean {
+
+    private static final String KEY_PREFIX = "ratelimit:gcra:";
+    private static final Duration REDIS_RETRY_BACKOFF = Duration.ofSeconds(5);
+
+    /**
+     * GCRA over Redis server time: KEYS[1] holds one theoretical arrival time (ms)
+     * ARGV[1] = capacity, ARGV[2] = period (ms), ARGV[3] = tokens requested
+     * Grants as many of the requested tokens as the burst tolerance allows.
+     * Returns {granted, ms until the next token when nothing was granted, tokens left in Redis}
+     */
+    private static final RedisScript<List> LEASE_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + tonumber(time[2]) / 1000
+            local capacity = tonumber(ARGV[1])
+            local period = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local interval = period / capacity
+            local tat = tonumber(redis.call('GET', KEYS[1]) or '0')
+            if tat < now then
+                tat = now
+            end
+            local granted = math.min(requested, math.floor((now + period - tat) / interval + 1e-9))
+            if granted <= 0 then
+                return {0, math.ceil(tat + interval - period - now), 0}
+            end
+            tat = tat + granted * interval
+            redis.call('SET', KEYS[1], string.format('%.3f', tat), 'PX', math.ceil(tat - now) + 1)
+            return {granted, 0, math.floor((now + period - tat) / interval + 1e-9)}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimitProperties rateLimitProperties;
+    private final ExecutorService refillExecutor;
+
+    private final Cache<String, Lease> leases;
+    private final GcraRateLimiter localLimiter;
+    private volatile long redisRetryAtMillis;
+
+    public DistributedRateLimiter(StringRedisTemplate redisTemplate,
+                                  RateLimitProperties rateLimitProperties,
+                                  MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.rateLimitProperties = rateLimitProperties;
+        this.leases = boundedStore(rateLimitProperties);
+        Cache<String, AtomicLong> arrivalTimes = boundedStore(rateLimitProperties);
+        this.localLimiter = new GcraRateLimiter(arrivalTimes);
+        CaffeineCacheMetrics.monitor(meterRegistry, leases, "ratelimit.leases");
+        CaffeineCacheMetrics.monitor(meterRegistry, arrivalTimes, "ratelimit.local");
+        this.refillExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(1_000),
+                new CustomizableThreadFactory("rate-limit-refill-"),
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Try to take one token from the bucket identified by key
+     */
+    public Decision tryConsume(String key, long capacity, Duration period) {
+        if (System.currentTimeMillis() < redisRetryAtMillis) {
+            return consumeLocally(key, capacity, period);
+        }
+
+        Lease lease = leases.get(key, k -> new Lease());
+        if (lease.tryTake()) {
+            long leased = lease.tokens.get();
+            if (leased <= lowWatermark()) {
+                refillInBackground(key, lease, capacity, period);
+            }
+            return Decision.permit(leased + lease.remoteRemaining);
+        }
+
+        long now = System.currentTimeMillis();
+        if (now < lease.emptyUntilMillis) {
+            return Decision.reject(lease.emptyUntilMillis - now);
+        }
+
+        try {
+            long[] result = leaseFromRedis(key, capacity, period);
+            lease.remoteRemaining = result[2];
+            if (result[0] > 0) {
+                lease.add(result[0] - 1, rateLimitProperties.getLeaseTtlMs());
+                return Decision.permit(result[0] - 1 + result[2]);
+            }
+            lease.emptyUntilMillis = now + result[1];
+            return Decision.reject(result[1]);
+        } catch (DataAccessException e) {
+            markRedisUnavailable(e);
+            return consumeLocally(key, capacity, period);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refillExecutor.shutdownNow();
+    }
+
+    private void refillInBackground(String key, Lease lease, long capacity, Duration period) {
+        if (!lease.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> {
+                try {
+                    long[] result = leaseFromRedis(key, capacity, period);
+                    lease.remoteRemaining = result[2];
+                    if (result[0] > 0) {
+                        lease.add(result[0], rateLimitProperties.getLeaseTtlMs());
+                    }
+                } catch (DataAccessException e) {
+                    markRedisUnavailable(e);
+                } finally {
+                    lease.refilling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            lease.refilling.set(false);
+        }
+    }
+
+    private long[] leaseFromRedis(String key, long capacity, Duration period) {
+        List<?> result = redisTemplate.execute(LEASE_SCRIPT, List.of(KEY_PREFIX + key),
+                String.valueOf(capacity),
+                String.valueOf(period.toMillis()),
+                String.valueOf(Math.min(capacity, rateLimitProperties.getLeaseBatchSize())));
+        if (result == null || result.size() < 3) {
+            // No verdict is not a grant: handled like any other Redis failure
+            throw new DataRetrievalFailureException("Rate limit script returned no result for " + key);
+        }
+        return new long[]{toLong(result.get(0)), toLong(result.get(1)), toLong(result.get(2))};
+    }
+
+    private Decision consumeLocally(String key, long capacity, Duration period) {
+        return localLimiter.tryAcquire(key, capacity, period);
+    }
+
+    private void markRedisUnavailable(DataAccessException e) {
+        if (System.currentTimeMillis() >= redisRetryAtMillis) {
+            log.warn("Rate limiter falling back to local limits for {}s: {}",
+                    REDIS_RETRY_BACKOFF.toSeconds(), e.getMessage());
+        }
+        redisRetryAtMillis = System.currentTimeMillis() + REDIS_RETRY_BACKOFF.toMillis();
+    }
+
+    private static <V> Cache<String, V> boundedStore(RateLimitProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(Duration.ofSeconds(properties.getBucketIdleSeconds()))
+                .recordStats()
+                .build();
+    }
+
+    private long lowWatermark() {
+        return Math.max(1, rateLimitProperties.getLeaseBatchSize() / 4);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+
+    /**
+     * Tokens leased to this node for one bucket
+     */
+    private static final class Lease {
+
+        private final AtomicLong tokens = new AtomicLong();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private volatile long expiresAtMillis;
+        private volatile long emptyUntilMillis;
+        private volatile long remoteRemaining;
+
+        boolean tryTake() {
+            if (System.currentTimeMillis() > expiresAtMillis) {
+                tokens.set(0);
+                return false;
+            }
+            long current;
+            do {
+                current = tokens.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        void add(long granted, long ttlMillis) {
+            if (System.currentTimeMillis() > expiresAtMillis) {
+                tokens.set(0);
+            }
+            tokens.addAndGet(granted);
+            expiresAtMillis = System.currentTimeMillis() + ttlMillis;
+            emptyUntilMillis = 0;
+        }
+    }
+
+    /**
+     * Outcome of a consume attempt. remaining is approximate (this node's lease plus the
+     * last seen shared balance); retryAfterMillis is set when rejected.
+     */
+    public record Decision(boolean allowed, long remaining, long retryAfterMillis) {
+
+        static Decision permit(long remaining) {
+            return new Decision(true, Math.max(0, remaining), 0);
+        }
+
+        static Decision reject(long retryAfterMillis) {
+            return new Decision(false, 0, Math.max(1, retryAfterMillis));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.eduplatform.config.security;
+
+import com.eduplatform.config.security.DistributedRateLimiter.Decision;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GCRA Rate Limiter
+ * Generic cell rate algorithm: each key stores a single theoretical arrival time (TAT) that is
+ * advanced lock-free with compareAndSet. A limit of capacity per period emits one cell every
+ * period / capacity and tolerates bursts up to capacity. There are no windows to reset and no
+ * maps to clear; idle keys are dropped by the bounded store they live in.
+ */
+public class GcraRateLimiter {
+
+    private final Cache<String, AtomicLong> arrivalTimes;
+
+    public GcraRateLimiter(Cache<String, AtomicLong> arrivalTimes) {
+        this.arrivalTimes = arrivalTimes;
+    }
+
+    public Decision tryAcquire(String key, long capacity, Duration period) {
+        long periodNanos = period.toNanos();
+        long interval = Math.max(1, periodNanos / capacity);
+        long now = System.nanoTime();
+        AtomicLong tat = arrivalTimes.get(key, k -> new AtomicLong(now));
+
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + interval;
+            long allowedAt = next - periodNanos;
+            if (now < allowedAt) {
+                return Decision.reject(TimeUnit.NANOSECONDS.toMillis(allowedAt - now));
+            }
+            if (tat.compareAndSet(current, next)) {
+                return Decision.permit((now + periodNanos - next) / interval);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.eduplatform.config.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Password Hashing Configuration Properties
+ * Controls the hashing algorithm, its cost and the dedicated executor that runs it.
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "app.security.password")
+public class PasswordHashingProperties {
+
+    /**
+     * Algorithm id used for new hashes ("bcrypt" or "pbkdf2").
+     * Stored hashes with a different id are re-encoded on the next successful login.
+     */
+    private String algorithm = "bcrypt";
+
+    /**
+     * BCrypt log rounds. Raising it re-encodes weaker hashes on the next successful login.
+     */
+    private int bcryptStrength = 10;
+
+    /**
+     * Threads dedicated to hashing; defaults to the number of available processors.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Hash requests allowed to wait for a free thread before new ones are rejected.
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * Maximum time a request thread waits for its hash before giving up.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Retry-After hint returned to clients when hashing capacity is exhausted.
+     */
+    private long retryAfterSeconds = 2;
+}
@@ -0,0 +1,209 @@
+package com.eduplatform.config.security;
+
+import com.eduplatform.config.RateLimitProperties;
+import com.eduplatform.config.RateLimitProperties.Limit;
+import com.eduplatform.config.RateLimitProperties.Policy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Rate Limit Policy Engine
+ * Compiles the app.api.rate-limit.policies table into a path-segment trie at startup, so resolving
+ * the policy for a request costs O(path segments) regardless of the number of policies.
+ * Route patterns are relative to the context path and support literals, {variable} / * for one
+ * segment and a trailing ** for any remainder. The most specific matching route wins; among
+ * policies on the same route the first whose methods, roles and client types match is used.
+ */
+@Slf4j
+@Component
+public class RateLimitPolicyEngine {
+
+    public enum ClientType {
+        USER,
+        API_KEY,
+        ANONYMOUS
+    }
+
+    private final RouteNode root = new RouteNode();
+    private final CompiledPolicy fallback;
+
+    public RateLimitPolicyEngine(RateLimitProperties properties) {
+        List<Policy> policies = properties.getPolicies().isEmpty()
+                ? defaultPolicies(properties)
+                : properties.getPolicies();
+
+        for (int i = 0; i < policies.size(); i++) {
+            CompiledPolicy compiled = compile(policies.get(i), i);
+            insert(compiled);
+        }
+        this.fallback = compile(new Policy("default", "/**", List.of(), List.of(), List.of(), true,
+                List.of(new Limit(properties.getDefaultRequestsPerMinute(), Duration.ofMinutes(1)))),
+                Integer.MAX_VALUE);
+
+        log.info("Rate limit policy table loaded: {}", policies.stream()
+                .map(Policy::getName)
+                .collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Resolve the policy for a request path (relative to the context path)
+     */
+    public CompiledPolicy resolve(String method, String path, String role, ClientType clientType) {
+        String[] segments = split(path);
+        List<CompiledPolicy> candidates = new ArrayList<>();
+
+        List<RouteNode> active = List.of(root);
+        for (String segment : segments) {
+            List<RouteNode> next = new ArrayList<>(2);
+            for (RouteNode node : active) {
+                candidates.addAll(node.remainder);
+                RouteNode literal = node.literals.get(segment);
+                if (literal != null) {
+                    next.add(literal);
+                }
+                if (node.variable != null) {
+                    next.add(node.variable);
+                }
+            }
+            if (next.isEmpty()) {
+                active = List.of();
+                break;
+            }
+            active = next;
+        }
+        for (RouteNode node : active) {
+            candidates.addAll(node.exact);
+            candidates.addAll(node.remainder);
+        }
+
+        candidates.sort(Comparator.comparingInt(CompiledPolicy::specificity).reversed()
+                .thenComparingInt(CompiledPolicy::order));
+        for (CompiledPolicy candidate : candidates) {
+            if (candidate.appliesTo(method, role, clientType)) {
+                return candidate;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Built from the flat per-tier settings when no explicit table is configured
+     */
+    private static List<Policy> defaultPolicies(RateLimitProperties properties) {
+        Duration minute = Duration.ofMinutes(1);
+        return List.of(
+                new Policy("auth", "/auth/**", List.of(), List.of(), List.of(), true,
+                        List.of(new Limit(properties.getAuthRequestsPerMinute(), minute))),
+                new Policy("admin", "/**", List.of(), List.of("ADMIN", "SUPER_ADMIN"), List.of(), true,
+                        List.of(new Limit(properties.getAdminRequestsPerMinute(), minute))),
+                new Policy("public", "/courses/**", List.of("GET"), List.of(), List.of("ANONYMOUS"), true,
+                        List.of(new Limit(properties.getPublicRequestsPerMinute(), minute))),
+                new Policy("default", "/**", List.of(), List.of(), List.of(), true,
+                        List.of(new Limit(properties.getDefaultRequestsPerMinute(), minute))));
+    }
+
+    private void insert(CompiledPolicy policy) {
+        RouteNode node = root;
+        String[] segments = split(policy.route());
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if ("**".equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalStateException("'**' must be the last segment in rate limit route "
+                            + policy.route());
+                }
+                node.remainder.add(policy);
+                return;
+            }
+            if ("*".equals(segment) || (segment.startsWith("{") && segment.endsWith("}"))) {
+                if (node.variable == null) {
+                    node.variable = new RouteNode();
+                }
+                node = node.variable;
+            } else {
+                node = node.literals.computeIfAbsent(segment, k -> new RouteNode());
+            }
+        }
+        node.exact.add(policy);
+    }
+
+    private static CompiledPolicy compile(Policy policy, int order) {
+        if (policy.getLimits() == null || policy.getLimits().isEmpty()) {
+            throw new IllegalStateException("Rate limit policy '" + policy.getName() + "' has no limits");
+        }
+        String[] segments = split(policy.getRoute());
+        int specificity = 0;
+        for (String segment : segments) {
+            if ("**".equals(segment)) {
+                continue;
+            }
+            specificity += ("*".equals(segment) || segment.startsWith("{")) ? 1 : 2;
+        }
+        if (segments.length == 0 || !"**".equals(segments[segments.length - 1])) {
+            // An exact route beats a ** route with the same prefix
+            specificity += 1;
+        }
+
+        return new CompiledPolicy(
+                policy.getName(),
+                policy.getRoute(),
+                upper(policy.getMethods()),
+                upper(policy.getRoles()),
+                upper(policy.getClientTypes()),
+                policy.isPerRoute(),
+                List.copyOf(policy.getLimits()),
+                specificity,
+                order);
+    }
+
+    private static Set<String> upper(List<String> values) {
+        return values == null ? Set.of() : values.stream()
+                .map(value -> value.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static String[] split(String path) {
+        String trimmed = path == null ? "" : path.replaceAll("^/+|/+$", "");
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+    }
+
+    private static final class RouteNode {
+        private final Map<String, RouteNode> literals = new HashMap<>();
+        private RouteNode variable;
+        private final List<CompiledPolicy> exact = new ArrayList<>();
+        private final List<CompiledPolicy> remainder = new ArrayList<>();
+    }
+
+    /**
+     * A policy row ready for matching; limits are applied together (all must admit the request)
+     */
+    public record CompiledPolicy(String name, String route, Set<String> methods, Set<String> roles,
+                                 Set<String> clientTypes, boolean perRoute, List<Limit> limits,
+                                 int specificity, int order) {
+
+        boolean appliesTo(String method, String role, ClientType clientType) {
+            return (methods.isEmpty() || methods.contains(method))
+                    && (roles.isEmpty() || roles.contains(role))
+                    && (clientTypes.isEmpty() || clientTypes.contains(clientType.name()));
+        }
+
+        /**
+         * RateLimit-Policy header value, e.g. "100;w=60, 20;w=1"
+         */
+        public String headerValue() {
+            return limits.stream()
+                    .map(limit -> limit.getCapacity() + ";w=" + limit.getPeriod().toSeconds())
+                    .collect(Collectors.joining(", "));
+        }
+    }
+}
@@ -1,8 +1,17 @@
 package com.eduplatform.config.security;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import com.eduplatform.config.RateLimitProperties;
+import com.eduplatform.config.RateLimitProperties.Limit;
+import com.eduplatform.config.security.DistributedRateLimiter.Decision;
+import com.eduplatform.config.security.RateLimitPolicyEngine.ClientType;
+import com.eduplatform.config.security.RateLimitPolicyEngine.CompiledPolicy;
+import com.eduplatform.config.web.RoutePatternResolver;
+import com.eduplatform.service.auth.JwtService;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -11,157 +20,225 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.time.Duration;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Rate Limiting Filter for EduPlatform
- * Fixed with correct modern Bucket4j API
+ * The single rate limit enforcement point. The policy for each request is chosen from the
+ * policy table by route, role and client type (see RateLimitPolicyEngine); its limits are
+ * enforced on buckets shared across all nodes through Redis (see DistributedRateLimiter).
+ * Runs before the Spring Security chain, so requests the chain rejects (401) are limited too.
+ * The user and role are taken from a correctly signed bearer token without loading the user;
+ * anything else is keyed by a configured API key or, failing that, the client IP, so inventing
+ * header values cannot open fresh buckets. POST /auth/login is left to
+ * LoginThrottleService, which limits it per IP, subnet and account before hashing.
+ * Responses carry RateLimit-Limit / -Remaining / -Reset / -Policy headers.
  */
 @Slf4j
 @Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+@RequiredArgsConstructor
 public class RateLimitingFilter extends OncePerRequestFilter {
 
-    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private static final String ANONYMOUS_ROLE = "ANONYMOUS";
+    private static final String AUTHENTICATED_ROLE = "AUTHENTICATED";
 
-    // Rate limit: 100 requests per minute per IP/user
-    private static final long CAPACITY = 100;
-    private static final Duration REFILL_PERIOD = Duration.ofMinutes(1);
+    private final DistributedRateLimiter rateLimiter;
+    private final RateLimitProperties rateLimitProperties;
+    private final RateLimitPolicyEngine policyEngine;
+    private final RoutePatternResolver routePatternResolver;
+    private final JwtService jwtService;
 
     @Override
-    protected void doFilterInternal(HttpServletRequest request, 
-                                  HttpServletResponse response, 
+    protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
                                   FilterChain filterChain) throws ServletException, IOException {
 
-        // Get client identifier (IP address or user ID)
-        String clientId = getClientIdentifier(request);
+        Claims token = bearerClaims(request);
+        String apiKeyId = validApiKeyId(request);
 
-        // Get or create bucket for this client
-        Bucket bucket = getBucket(clientId, request.getRequestURI());
+        // Get client identifier and class (token subject > API key > IP address)
+        String clientId = getClientIdentifier(request, token, apiKeyId);
+        ClientType clientType = getClientType(token, apiKeyId);
+        String role = getRole(token);
 
-        // Try to consume 1 token
-        if (bucket.tryConsume(1)) {
-            // Request allowed - proceed with the chain
-            filterChain.doFilter(request, response);
-        } else {
-            // Rate limit exceeded
-            handleRateLimitExceeded(response, clientId);
-        }
-    }
+        CompiledPolicy policy = policyEngine.resolve(request.getMethod(), pathWithinApplication(request),
+                role, clientType);
 
-    /**
-     * Get or create a rate limiting bucket for the client
-     */
-    private Bucket getBucket(String clientId, String endpoint) {
-        String key = clientId + ":" + endpoint;
+        // Per-route policies keep one bucket per route pattern (not raw URI), so path
+        // variables and scanning traffic cannot multiply the number of buckets
+        String key = policy.name() + ":" + clientId;
+        if (policy.perRoute()) {
+            key += ":" + request.getMethod() + " " + routePatternResolver.resolve(request);
+        }
 
-        return buckets.computeIfAbsent(key, k -> {
-            log.debug("Creating new rate limit bucket for: {}", k);
-            return createNewBucket();
-        });
-    }
+        // Every limit of the policy (burst and sustained) must admit the request
+        Decision tightest = null;
+        Limit tightestLimit = null;
+        for (int i = 0; i < policy.limits().size(); i++) {
+            Limit limit = policy.limits().get(i);
+            Decision decision = rateLimiter.tryConsume(key + ":" + i, limit.getCapacity(), limit.getPeriod());
+            if (!decision.allowed()) {
+                writeHeaders(response, policy, limit, decision);
+                handleRateLimitExceeded(response, clientId, policy, decision.retryAfterMillis());
+                return;
+            }
+            if (tightest == null || decision.remaining() < tightest.remaining()) {
+                tightest = decision;
+                tightestLimit = limit;
+            }
+        }
 
-    /**
-     * Create a new token bucket with correct modern Bucket4j API
-     */
-    private Bucket createNewBucket() {
-        // CORRECT MODERN API: Direct builder approach
-        return Bucket.builder()
-                .addLimit(Bandwidth.builder()
-    .capacity(CAPACITY)
-    .refillIntervally(CAPACITY, REFILL_PERIOD)
-    .build()
-)
-                .build();
+        writeHeaders(response, policy, tightestLimit, tightest);
+        filterChain.doFilter(request, response);
     }
 
     /**
      * Get client identifier from request
-     * Priority: JWT user ID > API Key > IP Address
+     * Priority: JWT subject > configured API Key > IP Address
      */
-    private String getClientIdentifier(HttpServletRequest request) {
-        // Try to get user ID from JWT token
-        String userId = extractUserIdFromJWT(request);
-        if (userId != null) {
-            return "user:" + userId;
+    private String getClientIdentifier(HttpServletRequest request, Claims token, String apiKeyId) {
+        // Signed, unexpired token (the user itself is loaded later by the security chain)
+        if (token != null && token.getSubject() != null) {
+            return "user:" + token.getSubject();
         }
 
-        // Try to get API key
-        String apiKey = request.getHeader("X-API-KEY");
-        if (apiKey != null && !apiKey.isEmpty()) {
-            return "api:" + apiKey;
+        if (apiKeyId != null) {
+            return "api:" + apiKeyId;
         }
 
-        // Fall back to IP address
+        // Fall back to IP address (also for unknown API keys, which are client-chosen)
         String clientIp = getClientIpAddress(request);
         return "ip:" + clientIp;
     }
 
+    private ClientType getClientType(Claims token, String apiKeyId) {
+        if (token != null) {
+            return ClientType.USER;
+        }
+        return apiKeyId != null ? ClientType.API_KEY : ClientType.ANONYMOUS;
+    }
+
     /**
-     * Extract user ID from JWT token (placeholder for future implementation)
+     * Short hash of the X-API-KEY header if it is one of the configured keys (the key itself never
+     * ends up in bucket names or logs); null for a missing or unknown key
      */
-    private String extractUserIdFromJWT(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            try {
-                // For now, return null - implement JWT parsing when JwtService is available
-                // String token = authHeader.substring(7);
-                // return jwtService.extractUserId(token);
-                return null;
-            } catch (Exception e) {
-                log.warn("Failed to extract user ID from JWT: {}", e.getMessage());
+    private String validApiKeyId(HttpServletRequest request) {
+        String apiKey = request.getHeader("X-API-KEY");
+        if (apiKey == null || apiKey.isEmpty() || rateLimitProperties.getApiKeys().isEmpty()) {
+            return null;
+        }
+        byte[] submitted = sha256(apiKey);
+        for (String configured : rateLimitProperties.getApiKeys()) {
+            if (MessageDigest.isEqual(submitted, sha256(configured))) {
+                return HexFormat.of().formatHex(submitted, 0, 8);
             }
         }
         return null;
     }
 
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     /**
-     * Get client IP address with proxy support
+     * Role claim of the token (tokens issued before the claim existed match no role-specific policy)
      */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
+    private String getRole(Claims token) {
+        if (token == null) {
+            return ANONYMOUS_ROLE;
         }
+        String role = token.get(JwtService.ROLE_CLAIM, String.class);
+        return role != null ? role : AUTHENTICATED_ROLE;
+    }
 
-        String xRealIP = request.getHeader("X-Real-IP");
-        if (xRealIP != null && !xRealIP.isEmpty()) {
-            return xRealIP;
+    /**
+     * Claims of a valid bearer token; an invalid or expired token counts as anonymous (keyed by IP)
+     */
+    private Claims bearerClaims(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
         }
+        return jwtService.extractValidClaims(header.substring(7));
+    }
 
+    /**
+     * Get client IP address with proxy support
+     * X-Forwarded-For from trusted proxies is already applied to getRemoteAddr()
+     * (server.forward-headers-strategy: native); raw headers are client-controlled.
+     */
+    private String getClientIpAddress(HttpServletRequest request) {
         return request.getRemoteAddr();
     }
 
+    /**
+     * RateLimit headers (IETF httpapi-ratelimit-headers) for the most constrained limit
+     */
+    private void writeHeaders(HttpServletResponse response, CompiledPolicy policy, Limit limit, Decision decision) {
+        long periodMillis = limit.getPeriod().toMillis();
+        long resetSeconds = decision.allowed()
+                ? TimeUnit.MILLISECONDS.toSeconds(
+                        (limit.getCapacity() - decision.remaining()) * periodMillis / limit.getCapacity() + 999)
+                : TimeUnit.MILLISECONDS.toSeconds(decision.retryAfterMillis() + 999);
+
+        response.setHeader("RateLimit-Limit", String.valueOf(limit.getCapacity()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(Math.min(decision.remaining(), limit.getCapacity())));
+        response.setHeader("RateLimit-Reset", String.valueOf(Math.max(0, resetSeconds)));
+        response.setHeader("RateLimit-Policy", policy.headerValue());
+    }
+
     /**
      * Handle rate limit exceeded scenario
      */
-    private void handleRateLimitExceeded(HttpServletResponse response, String clientId) throws IOException {
-        log.warn("Rate limit exceeded for client: {}", clientId);
+    private void handleRateLimitExceeded(HttpServletResponse response, String clientId,
+                                         CompiledPolicy policy, long retryAfterMillis) throws IOException {
+        log.warn("Rate limit exceeded for client: {} (policy: {})", clientId, policy.name());
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis + 999));
 
         // FIXED: Use HTTP status code 429 directly
         response.setStatus(429); // 429 Too Many Requests
         response.setContentType("application/json");
-        response.setHeader("X-Rate-Limit-Exceeded", "true");
-        response.setHeader("Retry-After", "60"); // Retry after 60 seconds
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
 
         String jsonResponse = String.format("""
             {
                 "error": "Rate limit exceeded",
                 "message": "Too many requests. Please try again later.",
-                "retryAfter": 60,
+                "retryAfter": %d,
                 "timestamp": "%s"
             }
-            """, java.time.Instant.now().toString());
+            """, retryAfterSeconds, java.time.Instant.now().toString());
 
         response.getWriter().write(jsonResponse);
     }
 
+    private static String pathWithinApplication(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
     /**
      * Skip rate limiting for certain endpoints
      */
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String path = request.getRequestURI();
+        if (!rateLimitProperties.isEnabled()) {
+            return true;
+        }
+        String path = pathWithinApplication(request);
+
+        // Login has its own pre-hash throttle (LoginThrottleService); limiting it here too would count it twice
+        if ("POST".equals(request.getMethod()) && path.equals("/auth/login")) {
+            return true;
+        }
 
         // Skip rate limiting for health checks and static resources
         return path.startsWith("/actuator/") ||
@@ -171,4 +248,4 @@ public class RateLimitingFilter extends OncePerRequestFilter {
                path.startsWith("/images/") ||
                path.equals("/favicon.ico");
     }
-}
\ No newline at end of file
+}
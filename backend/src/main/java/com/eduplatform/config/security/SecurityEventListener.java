@@ -1,22 +1,25 @@
 package com.eduplatform.config.security;
 
-// import com.eduplatform.model.User;
 import com.eduplatform.repository.UserRepository;
+import com.eduplatform.service.auth.LoginAttemptService;
+import com.eduplatform.service.auth.UserLookupCache;
 import com.eduplatform.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
 import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
 import org.springframework.security.authentication.event.LogoutSuccessEvent;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-
 /**
  * Security Event Listener
- * Listens to security events and performs audit logging
+ * Listens to security events and performs audit logging.
+ * Failed-attempt accounting lives in Redis (see LoginAttemptService); the users table
+ * is only written when a lockout is triggered.
  */
 @Slf4j
 @Component
@@ -24,33 +27,25 @@ import java.time.LocalDateTime;
 public class SecurityEventListener {
 
     private final UserRepository userRepository;
-    private static final int MAX_FAILED_ATTEMPTS = 5;
-    private static final int LOCKOUT_DURATION_MINUTES = 30;
+    private final LoginAttemptService loginAttemptService;
+    private final UserLookupCache userLookupCache;
 
     /**
      * Handle successful authentication
      */
     @EventListener
-    @Transactional
     public void handleAuthenticationSuccess(AuthenticationSuccessEvent event) {
         String username = event.getAuthentication().getName();
         log.info("Authentication successful for user: {}", SecurityUtils.maskEmail(username));
 
         // Reset failed login attempts on successful login
-        userRepository.findByEmailIgnoreCase(username).ifPresent(user -> {
-            if (user.getFailedLoginAttempts() > 0) {
-                user.setFailedLoginAttempts(0);
-                user.setAccountLockedUntil(null);
-                userRepository.save(user);
-            }
-        });
+        loginAttemptService.recordSuccess(username);
     }
 
     /**
      * Handle authentication failure
      */
     @EventListener
-    @Transactional
     public void handleAuthenticationFailure(AbstractAuthenticationFailureEvent event) {
         String username = event.getAuthentication().getName();
         String reason = event.getException().getMessage();
@@ -58,20 +53,23 @@ public class SecurityEventListener {
         log.warn("Authentication failed for user: {} - Reason: {}", 
                 SecurityUtils.maskEmail(username), reason);
 
-        // Increment failed login attempts
-        userRepository.findByEmailIgnoreCase(username).ifPresent(user -> {
-            int failedAttempts = user.getFailedLoginAttempts() + 1;
-            user.setFailedLoginAttempts(failedAttempts);
-
-            // Lock account if max attempts exceeded
-            if (failedAttempts >= MAX_FAILED_ATTEMPTS) {
-                user.setAccountLockedUntil(LocalDateTime.now().plusMinutes(LOCKOUT_DURATION_MINUTES));
-                log.warn("Account locked for user: {} due to {} failed login attempts", 
-                        SecurityUtils.maskEmail(username), failedAttempts);
-            }
+        // Only wrong passwords count towards a lockout (not locked/disabled accounts)
+        if (event instanceof AuthenticationFailureBadCredentialsEvent) {
+            loginAttemptService.recordFailure(username);
+        }
+    }
 
-            userRepository.save(user);
-        });
+    /**
+     * Persist a triggered lockout to users.account_locked_until off the request thread
+     */
+    @Async
+    @EventListener
+    @Transactional
+    public void handleAccountLocked(AccountLockedEvent event) {
+        int updated = userRepository.lockAccountByEmail(event.email(), event.lockedUntil());
+        userLookupCache.evict(event.email());
+        log.info("Persisted lockout for user: {} until {} ({} row(s))",
+                SecurityUtils.maskEmail(event.email()), event.lockedUntil(), updated);
     }
 
     /**
@@ -82,4 +80,4 @@ public class SecurityEventListener {
         String username = event.getAuthentication().getName();
         log.info("Logout successful for user: {}", SecurityUtils.maskEmail(username));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package com.eduplatform.config.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * TOTP Secret Encryptor
+ * AES-256-GCM encryption of per-user TOTP secrets before they are written to the users table.
+ * Stored format is Base64(iv || ciphertext+tag). The key comes from app.mfa.secret-encryption-key
+ * (Base64, 32 bytes); without one a key is derived from the JWT secret, which is only fit for development.
+ */
+@Slf4j
+@Component
+public class TotpSecretEncryptor {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private final SecretKeySpec key;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public TotpSecretEncryptor(@Value("${app.mfa.secret-encryption-key:}") String encryptionKey,
+                               @Value("${app.jwt.secret}") String jwtSecret) throws GeneralSecurityException {
+        byte[] keyBytes;
+        if (StringUtils.hasText(encryptionKey)) {
+            keyBytes = Base64.getDecoder().decode(encryptionKey);
+            if (keyBytes.length != 32) {
+                throw new IllegalStateException("app.mfa.secret-encryption-key must be 32 bytes (Base64)");
+            }
+        } else {
+            log.warn("app.mfa.secret-encryption-key is not set; deriving the TOTP secret key from the JWT secret");
+            keyBytes = MessageDigest.getInstance("SHA-256")
+                    .digest(("totp-secret:" + jwtSecret).getBytes(StandardCharsets.UTF_8));
+        }
+        this.key = new SecretKeySpec(keyBytes, "AES");
+    }
+
+    public String encrypt(String plaintext) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            byte[] ciphertext = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + ciphertext.length)
+                    .put(iv)
+                    .put(ciphertext)
+                    .array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt TOTP secret", e);
+        }
+    }
+
+    public String decrypt(String encoded) {
+        try {
+            byte[] payload = Base64.getDecoder().decode(encoded);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, payload, 0, IV_LENGTH));
+            byte[] plaintext = cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH);
+            return new String(plaintext, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Failed to decrypt TOTP secret", e);
+        }
+    }
+}
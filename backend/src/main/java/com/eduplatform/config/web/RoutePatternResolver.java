@@ -0,0 +1,54 @@
+package com.eduplatform.config.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+/**
+ * Route Pattern Resolver
+ * Resolves the controller mapping pattern (e.g. /courses/{courseId}) for a request before it
+ * reaches the DispatcherServlet, so filters can key state by route instead of raw URI.
+ * Requests that match no controller share a single "unmatched" route.
+ */
+@Slf4j
+@Component
+public class RoutePatternResolver {
+
+    public static final String UNMATCHED = "unmatched";
+
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMapping;
+
+    public RoutePatternResolver(
+            @Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> handlerMapping) {
+        this.handlerMapping = handlerMapping;
+    }
+
+    public String resolve(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            return pattern.toString();
+        }
+
+        RequestMappingHandlerMapping mapping = handlerMapping.getIfAvailable();
+        if (mapping == null) {
+            return UNMATCHED;
+        }
+        try {
+            if (!ServletRequestPathUtils.hasParsedRequestPath(request)) {
+                ServletRequestPathUtils.parseAndCache(request);
+            }
+            if (mapping.getHandler(request) != null) {
+                pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            }
+        } catch (Exception e) {
+            // Method/media type mismatches are reported by the DispatcherServlet later
+            log.trace("No route pattern for {}: {}", request.getRequestURI(), e.getMessage());
+        }
+        return pattern != null ? pattern.toString() : UNMATCHED;
+    }
+}
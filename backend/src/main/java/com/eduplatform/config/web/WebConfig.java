@@ -19,7 +19,6 @@ import java.util.Locale;
 public class WebConfig implements WebMvcConfigurer {
 
     private final RequestLoggingInterceptor requestLoggingInterceptor;
-    private final RateLimitingInterceptor rateLimitingInterceptor;
 
     /**
      * Configure Interceptors
@@ -32,11 +31,8 @@ public class WebConfig implements WebMvcConfigurer {
         // Add request logging interceptor
         registry.addInterceptor(requestLoggingInterceptor)
                 .addPathPatterns("/api/v1/**");
-        
-        // Add rate limiting interceptor
-        registry.addInterceptor(rateLimitingInterceptor)
-                .addPathPatterns("/api/v1/**")
-                .excludePathPatterns("/api/v1/health", "/api/v1/actuator/**");
+
+        // Rate limiting is enforced once, by RateLimitingFilter
     }
 
     /**
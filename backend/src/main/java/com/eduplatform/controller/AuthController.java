@@ -3,6 +3,7 @@ package com.eduplatform.controller;
 import com.eduplatform.dto.auth.AuthRequest;
 import com.eduplatform.dto.auth.AuthResponse;
 import com.eduplatform.service.auth.AuthService;
+import com.eduplatform.service.auth.LoginThrottleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 // import io.swagger.v3.oas.annotations.media.Content;
@@ -10,6 +11,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +35,7 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginThrottleService loginThrottleService;
 
     /**
      * User login endpoint
@@ -45,12 +48,16 @@ public class AuthController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Login successful"),
         @ApiResponse(responseCode = "401", description = "Invalid credentials"),
-        @ApiResponse(responseCode = "423", description = "Account locked")
+        @ApiResponse(responseCode = "423", description = "Account locked"),
+        @ApiResponse(responseCode = "429", description = "Too many login attempts")
     })
     public ResponseEntity<AuthResponse.Login> login(
-            @Valid @RequestBody AuthRequest.Login request) {
+            @Valid @RequestBody AuthRequest.Login request,
+            HttpServletRequest httpRequest) {
         
         log.info("Login attempt for user: {}", request.getEmail());
+        // Throttle before any password hashing or DB lookup happens
+        loginThrottleService.checkLoginAllowed(httpRequest.getRemoteAddr(), request.getEmail());
         AuthResponse.Login response = authService.login(request);
         return ResponseEntity.ok(response);
     }
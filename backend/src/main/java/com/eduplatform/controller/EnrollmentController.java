@@ -1,24 +1,35 @@
 package com.eduplatform.controller;
 
 import com.eduplatform.controller.base.BaseController;
+import com.eduplatform.dto.request.BulkEnrollmentRequest;
+import com.eduplatform.dto.response.ActivityFeedDto;
 import com.eduplatform.dto.response.ApiResponse;
+import com.eduplatform.dto.response.BulkEnrollmentResultDto;
 import com.eduplatform.dto.response.EnrollmentDto;
 import com.eduplatform.dto.response.EnrollmentStatsDto;
 import com.eduplatform.security.UserPrincipal;
 import com.eduplatform.service.EnrollmentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -28,7 +39,11 @@ import java.util.UUID;
 @Tag(name = "Enrollment", description = "Course enrollment management")
 public class EnrollmentController extends BaseController {
 
+    private static final int MAX_ACTIVITY_PAGE_SIZE = 200;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final EnrollmentService enrollmentService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     @Operation(summary = "Get user enrollments")
@@ -62,6 +77,64 @@ public class EnrollmentController extends BaseController {
         return buildCreatedResponse(enrollment, "Successfully enrolled in course");
     }
 
+    @PostMapping("/course/{courseId}/bulk")
+    @Operation(summary = "Enroll a cohort of students by email")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<ApiResponse<BulkEnrollmentResultDto>> bulkEnroll(
+            @PathVariable UUID courseId,
+            @Valid @RequestBody BulkEnrollmentRequest request,
+            Authentication authentication) {
+
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        log.info("Bulk enrolling {} email(s) in course {}", request.getEmails().size(), courseId);
+
+        BulkEnrollmentResultDto result = enrollmentService.bulkEnroll(
+                courseId, request, userPrincipal.getId(), progress -> { });
+
+        return buildSuccessResponse(result, "Bulk enrollment completed");
+    }
+
+    @PostMapping(value = "/course/{courseId}/bulk/stream", produces = "application/x-ndjson")
+    @Operation(summary = "Enroll a cohort of students by email, streaming progress as NDJSON")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> bulkEnrollStreaming(
+            @PathVariable UUID courseId,
+            @Valid @RequestBody BulkEnrollmentRequest request,
+            Authentication authentication) {
+
+        UUID instructorId = ((UserPrincipal) authentication.getPrincipal()).getId();
+        log.info("Bulk enrolling {} email(s) in course {} (streamed)", request.getEmails().size(), courseId);
+
+        // One line per chunk written, then the summary; a failure after the first line is reported in-band
+        StreamingResponseBody body = out -> {
+            try {
+                BulkEnrollmentResultDto result = enrollmentService.bulkEnroll(courseId, request, instructorId,
+                        progress -> writeLine(out, Map.of("progress", progress)));
+                writeLine(out, Map.of("result", result));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                log.warn("Streamed bulk enrollment in course {} failed: {}", courseId, e.getMessage());
+                writeLine(out, Map.of("error", String.valueOf(e.getMessage())));
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private static int activityPageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_ACTIVITY_PAGE_SIZE);
+    }
+
+    private void writeLine(OutputStream out, Object line) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @DeleteMapping("/course/{courseId}")
     @Operation(summary = "Unenroll from a course")
     @PreAuthorize("hasAnyRole('STUDENT', 'ADMIN')")
@@ -136,4 +209,65 @@ public class EnrollmentController extends BaseController {
         
         return buildSuccessResponse(stats, "Course enrollment statistics retrieved");
     }
+
+    @GetMapping("/course/{courseId}/activity")
+    @Operation(summary = "Get the latest enrollments and completions of a course")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<ApiResponse<ActivityFeedDto>> getCourseActivity(
+            @PathVariable UUID courseId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int size,
+            Authentication authentication) {
+
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        log.info("Getting activity feed for course: {}", courseId);
+
+        ActivityFeedDto feed = enrollmentService.getCourseActivity(
+                courseId, userPrincipal.getId(), before, activityPageSize(size));
+
+        return buildSuccessResponse(feed, "Course activity retrieved successfully");
+    }
+
+    @GetMapping("/activity")
+    @Operation(summary = "Get the latest enrollments and completions across my courses")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<ApiResponse<ActivityFeedDto>> getMyActivity(
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int size,
+            Authentication authentication) {
+
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        log.info("Getting activity feed for instructor: {}", userPrincipal.getId());
+
+        ActivityFeedDto feed = enrollmentService.getInstructorActivity(
+                userPrincipal.getId(), before, activityPageSize(size));
+
+        return buildSuccessResponse(feed, "Instructor activity retrieved successfully");
+    }
+
+    @GetMapping("/admin/instructor/{instructorId}/activity")
+    @Operation(summary = "Get the latest enrollments and completions across an instructor's courses")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ActivityFeedDto>> getInstructorActivity(
+            @PathVariable UUID instructorId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int size) {
+
+        log.info("Getting activity feed for instructor: {}", instructorId);
+
+        ActivityFeedDto feed = enrollmentService.getInstructorActivity(instructorId, before, activityPageSize(size));
+
+        return buildSuccessResponse(feed, "Instructor activity retrieved successfully");
+    }
+
+    @PostMapping("/admin/seats/reconcile")
+    @Operation(summary = "Check course seat counters against enrollments and repair drift")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> reconcileSeats() {
+        log.info("Reconciling course seat counters");
+
+        int corrected = enrollmentService.reconcileSeats();
+
+        return buildSuccessResponse(corrected, "Course seat counters reconciled");
+    }
 }
@@ -0,0 +1,49 @@
+package com.eduplatform.controller;
+
+import com.eduplatform.controller.base.BaseController;
+import com.eduplatform.service.export.ExportDataset;
+import com.eduplatform.service.export.ExportFormat;
+import com.eduplatform.service.export.TableExporter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/admin/exports")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Exports", description = "Streaming reporting exports")
+public class ExportController extends BaseController {
+
+    private final TableExporter tableExporter;
+
+    @GetMapping("/{dataset}")
+    @Operation(summary = "Stream a full export of enrollments, users, courses or lessons (Admin only)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> export(
+            @Parameter(description = "enrollments, users, courses or lessons") @PathVariable String dataset,
+            @Parameter(description = "ndjson or csv") @RequestParam(defaultValue = "ndjson") String format) {
+
+        ExportDataset exportDataset = ExportDataset.fromValue(dataset);
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        log.info("Exporting {} as {}", exportDataset, exportFormat);
+
+        StreamingResponseBody body = out -> tableExporter.export(exportDataset, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(exportDataset.getFileName(exportFormat))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
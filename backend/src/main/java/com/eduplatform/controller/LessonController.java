@@ -0,0 +1,36 @@
+package com.eduplatform.controller;
+
+import com.eduplatform.controller.base.BaseController;
+import com.eduplatform.dto.response.ApiResponse;
+import com.eduplatform.dto.response.LessonEngagementDto;
+import com.eduplatform.service.ProgressService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/lessons")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Lessons", description = "Lesson endpoints")
+public class LessonController extends BaseController {
+
+    private final ProgressService progressService;
+
+    @GetMapping("/{lessonId}/engagement")
+    @Operation(summary = "Get the video engagement histogram of a lesson (Instructor/Admin only)")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<ApiResponse<LessonEngagementDto>> getLessonEngagement(@PathVariable UUID lessonId) {
+        log.info("Getting engagement histogram for lesson: {}", lessonId);
+
+        LessonEngagementDto engagement = progressService.getLessonEngagement(lessonId);
+
+        return buildSuccessResponse(engagement, "Lesson engagement retrieved successfully");
+    }
+}
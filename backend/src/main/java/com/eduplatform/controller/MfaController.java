@@ -2,6 +2,7 @@ package com.eduplatform.controller;
 
 import com.eduplatform.dto.auth.MfaDto;
 import com.eduplatform.service.auth.MfaService;
+import com.eduplatform.service.auth.MfaService.TotpEnrollment;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -9,6 +10,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -65,4 +68,57 @@ public class MfaController {
         
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Start TOTP enrollment for the authenticated user (replacing an active authenticator
+     * requires a code from it or the password)
+     */
+    @PostMapping("/totp/enroll")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Start TOTP enrollment", description = "Generate an authenticator app secret and otpauth URI")
+    public ResponseEntity<MfaDto.TotpEnrollmentResponse> enrollTotp(
+            @Valid @RequestBody(required = false) MfaDto.TotpReauthRequest request, Authentication authentication) {
+        MfaDto.TotpReauthRequest proof = request != null ? request : new MfaDto.TotpReauthRequest();
+        TotpEnrollment enrollment = mfaService.beginTotpEnrollment(
+                authentication.getName(), proof.getCode(), proof.getPassword());
+
+        return ResponseEntity.ok(MfaDto.TotpEnrollmentResponse.builder()
+                .secret(enrollment.secret())
+                .otpAuthUri(enrollment.otpAuthUri())
+                .message("Scan the code with your authenticator app, then confirm with a generated code")
+                .build());
+    }
+
+    /**
+     * Confirm TOTP enrollment with a code from the authenticator app
+     */
+    @PostMapping("/totp/confirm")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Confirm TOTP enrollment", description = "Activate TOTP after verifying a generated code")
+    public ResponseEntity<MfaDto.TotpStatusResponse> confirmTotp(
+            @Valid @RequestBody MfaDto.TotpCodeRequest request, Authentication authentication) {
+
+        mfaService.confirmTotpEnrollment(authentication.getName(), request.getCode());
+
+        return ResponseEntity.ok(MfaDto.TotpStatusResponse.builder()
+                .enabled(true)
+                .message("Authenticator app enabled")
+                .build());
+    }
+
+    /**
+     * Disable TOTP for the authenticated user (requires a code from the authenticator or the password)
+     */
+    @DeleteMapping("/totp")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Disable TOTP", description = "Remove the authenticator app; emailed codes are used instead")
+    public ResponseEntity<MfaDto.TotpStatusResponse> disableTotp(
+            @Valid @RequestBody MfaDto.TotpReauthRequest request, Authentication authentication) {
+        mfaService.disableTotp(authentication.getName(), request.getCode(), request.getPassword());
+
+        return ResponseEntity.ok(MfaDto.TotpStatusResponse.builder()
+                .enabled(false)
+                .message("Authenticator app disabled")
+                .build());
+    }
+}
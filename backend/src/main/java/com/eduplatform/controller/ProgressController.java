@@ -1,11 +1,14 @@
 package com.eduplatform.controller;
 
 import com.eduplatform.controller.base.BaseController;
+import com.eduplatform.dto.request.ProgressSyncRequest;
 import com.eduplatform.dto.request.UpdateProgressRequest;
 import com.eduplatform.dto.response.ApiResponse;
 import com.eduplatform.dto.response.CourseProgressSummaryDto;
+import com.eduplatform.dto.response.CourseRecomputeStatusDto;
 import com.eduplatform.dto.response.LearningAnalyticsDto;
 import com.eduplatform.dto.response.LessonProgressDto;
+import com.eduplatform.dto.response.ProgressSyncResultDto;
 import com.eduplatform.dto.response.UserProgressDto;
 import com.eduplatform.exception.ResourceNotFoundException;
 import com.eduplatform.security.UserPrincipal;
@@ -91,13 +94,35 @@ public class ProgressController extends BaseController {
         
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         UUID userId = userPrincipal.getId();
-        log.info("Updating lesson {} progress for user: {}", lessonId, userId);
-        
+        log.debug("Updating lesson {} progress for user: {}", lessonId, userId);
+
+        // Completions are applied synchronously; plain heartbeats are buffered and written behind
+        if (!Boolean.TRUE.equals(request.getCompleted())) {
+            progressService.recordProgressHeartbeat(userId, lessonId, request);
+            return buildAcceptedResponse(null, "Lesson progress accepted");
+        }
+
         LessonProgressDto progress = progressService.updateLessonProgress(userId, lessonId, request);
         
         return buildSuccessResponse(progress, "Lesson progress updated successfully");
     }
 
+    @PostMapping("/sync")
+    @Operation(summary = "Apply a batch of offline progress events (idempotent per event key)")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<ApiResponse<ProgressSyncResultDto>> syncProgress(
+            @Valid @RequestBody ProgressSyncRequest request,
+            Authentication authentication) {
+
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        UUID userId = userPrincipal.getId();
+        log.debug("Syncing {} progress event(s) for user: {}", request.getEvents().size(), userId);
+
+        ProgressSyncResultDto result = progressService.syncProgress(userId, request);
+
+        return buildSuccessResponse(result, "Progress synchronized successfully");
+    }
+
     @PostMapping("/lesson/{lessonId}/start")
     @Operation(summary = "Start a lesson")
     @PreAuthorize("hasRole('STUDENT')")
@@ -173,4 +198,50 @@ public class ProgressController extends BaseController {
         
         return buildSuccessResponse("Recalculation completed", "Course progress recalculated successfully");
     }
+
+    @PostMapping("/course/{courseId}/users/{userId}/recalculate")
+    @Operation(summary = "Repair a student's course progress with a full recount")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<String>> repairCourseProgress(
+            @PathVariable UUID courseId,
+            @PathVariable UUID userId) {
+
+        log.info("Repairing course {} progress for user: {}", courseId, userId);
+
+        progressService.recalculateCourseProgress(userId, courseId);
+
+        return buildSuccessResponse("Recalculation completed", "Course progress recalculated successfully");
+    }
+
+    @PostMapping("/admin/read-model/rebuild")
+    @Operation(summary = "Rebuild the per-course user progress read model for all enrollments")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<String>> rebuildUserProgressReadModel() {
+        log.info("Starting user progress read model rebuild");
+
+        progressService.rebuildUserProgressReadModel();
+
+        return buildAcceptedResponse("Rebuild started", "User progress rebuild started");
+    }
+
+    @PostMapping("/admin/course/{courseId}/recompute")
+    @Operation(summary = "Recompute progress of every enrollment in a course")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CourseRecomputeStatusDto>> recomputeCourseProgress(@PathVariable UUID courseId) {
+        log.info("Queueing progress recompute for course: {}", courseId);
+
+        CourseRecomputeStatusDto status = progressService.recomputeCourseProgress(courseId);
+
+        return buildAcceptedResponse(status, "Course progress recompute queued");
+    }
+
+    @GetMapping("/admin/course/{courseId}/recompute")
+    @Operation(summary = "Get the status of the latest progress recompute of a course")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CourseRecomputeStatusDto>> getCourseRecomputeStatus(@PathVariable UUID courseId) {
+        CourseRecomputeStatusDto status = progressService.getCourseRecomputeStatus(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Recompute status", "courseId", courseId));
+
+        return buildSuccessResponse(status, "Course progress recompute status retrieved successfully");
+    }
 }
@@ -33,4 +33,11 @@ public abstract class BaseController {
     protected <T> ResponseEntity<ApiResponse<T>> buildCreatedResponse(T data, String message) {
         return ResponseEntity.status(201).body(ApiResponse.success(data, message));
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds an accepted-for-processing response (HTTP 202 Accepted).
+     */
+    protected <T> ResponseEntity<ApiResponse<T>> buildAcceptedResponse(T data, String message) {
+        return ResponseEntity.status(202).body(ApiResponse.success(data, message));
+    }
+}
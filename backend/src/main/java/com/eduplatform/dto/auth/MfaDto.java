@@ -59,4 +59,52 @@ public class MfaDto {
         private boolean verified;
         private String message;
     }
-}
\ No newline at end of file
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TotpCodeRequest {
+
+        @NotBlank(message = "Code is required")
+        @Pattern(regexp = "\\d{6}", message = "Code must be 6 digits")
+        private String code;
+    }
+
+    /**
+     * Proof of the current factor for replacing or removing TOTP: a code from the enrolled
+     * authenticator (or a pending emailed code), or the account password
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TotpReauthRequest {
+
+        @Pattern(regexp = "\\d{6}", message = "Code must be 6 digits")
+        private String code;
+
+        private String password;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TotpEnrollmentResponse {
+
+        private String secret;
+        private String otpAuthUri;
+        private String message;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TotpStatusResponse {
+
+        private boolean enabled;
+        private String message;
+    }
+}
@@ -0,0 +1,26 @@
+package com.eduplatform.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Cohort of learners to enroll in one course, identified by their account emails
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEnrollmentRequest {
+
+    @NotEmpty(message = "At least one student email is required")
+    @Size(max = 10000, message = "A cohort cannot contain more than 10000 students")
+    private List<@NotBlank @Email(message = "Invalid email format") String> emails;
+}
@@ -0,0 +1,57 @@
+package com.eduplatform.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Batch of progress events recorded offline by a client and replayed on reconnect
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressSyncRequest {
+
+    @NotEmpty(message = "At least one progress event is required")
+    @Size(max = 500, message = "A sync batch cannot contain more than 500 events")
+    private List<@Valid @NotNull Event> events;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Event {
+
+        /** Client-generated key; an event is applied at most once per user and key */
+        @NotBlank(message = "Idempotency key is required")
+        @Size(max = 100, message = "Idempotency key cannot exceed 100 characters")
+        private String idempotencyKey;
+
+        @NotNull(message = "Lesson ID is required")
+        private UUID lessonId;
+
+        /** When the event happened on the client */
+        @NotNull(message = "Client timestamp is required")
+        private Instant clientTimestamp;
+
+        @Min(value = 0, message = "Video position cannot be negative")
+        private Integer videoPosition;
+
+        @Min(value = 0, message = "Time spent cannot be negative")
+        private Integer timeSpent;
+
+        private Boolean completed;
+    }
+}
@@ -0,0 +1,27 @@
+package com.eduplatform.dto.response;
+
+import com.eduplatform.model.enums.LearningEventType;
+import lombok.Builder;
+import lombok.Data;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+public class ActivityFeedDto {
+    private List<Event> events;
+    private Long nextBefore; // pass as "before" for the next (older) page; null on the last page
+
+    /**
+     * One enrollment or course completion, newest first
+     */
+    @Data
+    @Builder
+    public static class Event {
+        private LearningEventType type;
+        private UUID courseId;
+        private UUID studentId;
+        private Instant occurredAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.eduplatform.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+public class BulkEnrollmentResultDto {
+    private UUID courseId;
+    private int requested;
+    private int enrolled;
+    private int alreadyEnrolled;
+    private int notFound;
+    private List<StudentResult> results;
+
+    /**
+     * Outcome for one email of the cohort
+     */
+    @Data
+    @Builder
+    public static class StudentResult {
+        private String email;
+        private UUID studentId;
+        private Status status;
+    }
+
+    public enum Status {
+        ENROLLED,
+        ALREADY_ENROLLED,
+        NOT_FOUND
+    }
+
+    /**
+     * Progress line emitted after each chunk when the result is streamed
+     */
+    @Data
+    @Builder
+    public static class Progress {
+        private int processed;
+        private int total;
+        private int enrolled;
+    }
+}
@@ -3,14 +3,34 @@ package com.eduplatform.dto.response;
 import lombok.Builder;
 import lombok.Data;
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
 
 @Data
 @Builder
 public class CourseProgressSummaryDto {
+    private UUID courseId;
     private int totalStudents;
     private int studentsInProgress;
     private int studentsCompleted;
     private BigDecimal averageProgress;
     private BigDecimal completionRate;
     private int averageTimeSpent; // in minutes
-}
\ No newline at end of file
+    private List<LessonFunnel> lessons;
+
+    /**
+     * Per-lesson funnel, in lesson order
+     */
+    @Data
+    @Builder
+    public static class LessonFunnel {
+        private UUID lessonId;
+        private String title;
+        private int sortOrder;
+        private long started;
+        private long completed;
+        private BigDecimal completionRate; // completed / started, in percent
+        private int averageTimeSpent; // in seconds, per student who started
+        private BigDecimal averageScore;
+    }
+}
@@ -0,0 +1,20 @@
+package com.eduplatform.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+public class CourseRecomputeStatusDto {
+    private UUID courseId;
+    private String state; // QUEUED, RUNNING, FINISHED, FAILED
+    private int totalEnrollments;
+    private int processed;
+    private int changed;
+    private int completed;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -3,7 +3,9 @@ package com.eduplatform.dto.response;
 import lombok.Builder;
 import lombok.Data;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -12,8 +14,20 @@ public class LearningAnalyticsDto {
     private int coursesCompleted;
     private int totalLessonsCompleted;
     private int totalTimeSpent; // in minutes
-    private BigDecimal averageSessionTime;
+    private BigDecimal averageSessionTime; // in minutes, per active day
     private LocalDateTime lastActivity;
     private int currentStreak;
     private int longestStreak;
-}
\ No newline at end of file
+    private List<DailyActivity> dailyActivity;
+
+    /**
+     * Activity for one calendar day in the user's timezone
+     */
+    @Data
+    @Builder
+    public static class DailyActivity {
+        private LocalDate date;
+        private int minutesSpent;
+        private long events;
+    }
+}
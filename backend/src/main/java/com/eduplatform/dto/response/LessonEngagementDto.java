@@ -0,0 +1,15 @@
+package com.eduplatform.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.UUID;
+
+@Data
+@Builder
+public class LessonEngagementDto {
+    private UUID lessonId;
+    private Integer videoDuration; // in seconds
+    private int binWidthSeconds;
+    private long[] bins; // bins[i] counts views of [i * width, (i + 1) * width) seconds
+    private long peakBinViews;
+}
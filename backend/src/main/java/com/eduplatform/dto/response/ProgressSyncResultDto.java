@@ -0,0 +1,24 @@
+package com.eduplatform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a progress sync batch
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressSyncResultDto {
+    private int received;
+    private int applied;
+    private int duplicates;
+    private int lessonsUpdated;
+    /** Idempotency keys of events for unknown lessons or courses the user is not enrolled in */
+    private List<String> rejectedKeys;
+}
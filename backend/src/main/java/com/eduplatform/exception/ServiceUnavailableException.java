@@ -0,0 +1,19 @@
+package com.eduplatform.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ServiceUnavailableException extends EduPlatformException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message, "SERVICE_UNAVAILABLE");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, "SERVICE_UNAVAILABLE", cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -61,6 +61,10 @@ public class Enrollment extends BaseEntity {
     @Builder.Default
     private BigDecimal progressPercentage = BigDecimal.ZERO;
 
+    @Column(name = "lessons_completed", nullable = false)
+    @Builder.Default
+    private Integer lessonsCompleted = 0;
+
     @Column(name = "last_accessed_at")
     private LocalDateTime lastAccessedAt;
 
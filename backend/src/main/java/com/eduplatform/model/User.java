@@ -7,6 +7,7 @@ package com.eduplatform.model;
 import com.eduplatform.model.base.BaseEntity;
 import com.eduplatform.model.enums.UserRole;
 import com.eduplatform.model.enums.UserStatus;
+import com.eduplatform.model.listener.UserCacheInvalidationListener;
 import lombok.*;
 
 import jakarta.persistence.*;
@@ -32,6 +33,7 @@ import org.hibernate.annotations.SQLRestriction;
 @NoArgsConstructor
 @AllArgsConstructor
 @SQLRestriction("deleted_at IS NULL")
+@EntityListeners(UserCacheInvalidationListener.class)
 public class User extends BaseEntity {
 
     @Column(name = "email", unique = true, nullable = false, length = 255)
@@ -107,6 +109,17 @@ public class User extends BaseEntity {
     @Column(name = "email_verified_at")
     private LocalDateTime emailVerifiedAt;
 
+    // TOTP second factor (secret is AES-GCM encrypted, see TotpSecretEncryptor)
+    @Column(name = "mfa_totp_secret")
+    private String mfaTotpSecret;
+
+    @Column(name = "mfa_totp_enabled")
+    @Builder.Default
+    private Boolean mfaTotpEnabled = false;
+
+    @Column(name = "mfa_totp_enabled_at")
+    private LocalDateTime mfaTotpEnabledAt;
+
     // Relationships
     @OneToMany(mappedBy = "student", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Builder.Default
@@ -156,6 +169,10 @@ public class User extends BaseEntity {
         return Boolean.TRUE.equals(emailVerified);
     }
 
+    public boolean isTotpEnabled() {
+        return Boolean.TRUE.equals(mfaTotpEnabled) && mfaTotpSecret != null;
+    }
+
     // ========== ADDITIONAL HELPER METHODS FOR AUTHSERVICE ==========
 
     /**
@@ -12,14 +12,19 @@ import java.time.LocalDateTime;
 
 /**
  * User Progress Entity
- * Tracks overall user progress in courses
+ * Tracks overall user progress in courses. This is a denormalized read model maintained from
+ * lesson progress by UserProgressProjector; it is never written by request handlers.
  */
 @Entity
-@Table(name = "user_progress", indexes = {
-    @Index(name = "idx_user_progress_user", columnList = "user_id"),
-    @Index(name = "idx_user_progress_course", columnList = "course_id"),
-    @Index(name = "idx_user_progress_status", columnList = "status")
-})
+@Table(name = "user_progress",
+    indexes = {
+        @Index(name = "idx_user_progress_course", columnList = "course_id"),
+        @Index(name = "idx_user_progress_status", columnList = "status")
+    },
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_progress_user_course", columnNames = {"user_id", "course_id"})
+    }
+)
 @Getter
 @Setter
 @Builder
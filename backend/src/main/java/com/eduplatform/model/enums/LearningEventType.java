@@ -0,0 +1,12 @@
+package com.eduplatform.model.enums;
+
+/**
+ * Types of rows in the learning_events activity log
+ */
+public enum LearningEventType {
+    ENROLLED,
+    LESSON_STARTED,
+    HEARTBEAT,
+    LESSON_COMPLETED,
+    COURSE_COMPLETED
+}
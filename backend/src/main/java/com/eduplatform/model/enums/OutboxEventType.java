@@ -0,0 +1,12 @@
+package com.eduplatform.model.enums;
+
+/**
+ * Side effects delivered through the transactional outbox
+ */
+public enum OutboxEventType {
+    ENROLLMENT_CONFIRMATION_EMAIL,
+    ENROLLMENT_NOTIFICATION,
+    ENROLLMENT_NOTIFICATIONS,
+    COURSE_COMPLETION_NOTIFICATION,
+    COURSE_COMPLETION_NOTIFICATIONS
+}
@@ -0,0 +1,28 @@
+package com.eduplatform.model.listener;
+
+import com.eduplatform.model.User;
+import com.eduplatform.service.auth.UserLookupCache;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * User Cache Invalidation Listener
+ * Evicts the per-node user lookup cache whenever a user row is updated or removed
+ * (profile, status, password, verification, soft delete). Instantiated by Hibernate through
+ * Spring's bean container; the cache is resolved lazily to avoid a cycle with the EntityManagerFactory.
+ */
+public class UserCacheInvalidationListener {
+
+    private final ObjectProvider<UserLookupCache> userLookupCache;
+
+    public UserCacheInvalidationListener(ObjectProvider<UserLookupCache> userLookupCache) {
+        this.userLookupCache = userLookupCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        userLookupCache.ifAvailable(cache -> cache.evict(user.getEmail()));
+    }
+}
@@ -11,7 +11,6 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,9 +33,6 @@ public interface EnrollmentRepository extends BaseRepository<Enrollment> {
     
     long countByCourseAndStatus(Course course, EnrollmentStatus status);
     
-    @Query("SELECT e FROM Enrollment e WHERE e.enrolledAt >= :fromDate ORDER BY e.enrolledAt DESC")
-    List<Enrollment> findRecentEnrollments(@Param("fromDate") LocalDateTime fromDate);
-    
     @Query("SELECT e FROM Enrollment e WHERE e.student = :student AND e.status = 'COMPLETED' ORDER BY e.completedAt DESC")
     List<Enrollment> findCompletedEnrollmentsByStudent(@Param("student") User student);
     
@@ -15,7 +15,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
-// import java.util.UUID;
+import java.util.UUID;
 
 /**
  * Lesson Repository
@@ -55,6 +55,18 @@ public interface LessonRepository extends BaseRepository<Lesson> {
      */
     long countByCourse(Course course);
 
+    /**
+     * Count lessons by course id
+     */
+    @Query("SELECT COUNT(l) FROM Lesson l WHERE l.course.id = :courseId")
+    long countByCourseId(@Param("courseId") UUID courseId);
+
+    /**
+     * Resolve the course of a lesson without loading either entity
+     */
+    @Query("SELECT l.course.id FROM Lesson l WHERE l.id = :lessonId")
+    Optional<UUID> findCourseIdById(@Param("lessonId") UUID lessonId);
+
     /**
      * Count mandatory lessons by course
      */
@@ -4,6 +4,7 @@ import com.eduplatform.model.Course;
 import com.eduplatform.model.User;
 import com.eduplatform.model.UserProgress;
 import com.eduplatform.repository.base.BaseRepository;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,8 +13,15 @@ import java.util.UUID;
 
 @Repository
 public interface UserProgressRepository extends BaseRepository<UserProgress> {
+    @EntityGraph(attributePaths = "course")
     Optional<UserProgress> findByUser_IdAndCourse_Id(UUID userId, UUID courseId);
 
+    /**
+     * All course progress rows of a user in one indexed read (course fetched for the DTO)
+     */
+    @EntityGraph(attributePaths = "course")
+    List<UserProgress> findByUser_Id(UUID userId);
+
     Optional<UserProgress> findByUserAndCourse(User user, Course course);
 
     List<UserProgress> findByUser(User user);
@@ -25,14 +25,16 @@ public interface UserRepository extends BaseRepository<User> {
 
 
     /**
-     * Find user by email (case-insensitive)
+     * Find user by email (case-insensitive, served by idx_users_email_lower)
      */
-    Optional<User> findByEmailIgnoreCase(String email);
+    @Query("SELECT u FROM User u WHERE LOWER(u.email) = LOWER(:email)")
+    Optional<User> findByEmailIgnoreCase(@Param("email") String email);
 
     /**
-     * Check if email exists (case-insensitive)
+     * Check if email exists (case-insensitive, served by idx_users_email_lower)
      */
-    boolean existsByEmailIgnoreCase(String email);
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE LOWER(u.email) = LOWER(:email)")
+    boolean existsByEmailIgnoreCase(@Param("email") String email);
 
     /**
      * Find users by role
@@ -83,6 +85,13 @@ public interface UserRepository extends BaseRepository<User> {
     @Query("UPDATE User u SET u.lastLoginAt = :loginTime WHERE u.id = :userId")
     void updateLastLoginTime(@Param("userId") UUID userId, @Param("loginTime") LocalDateTime loginTime);
 
+    /**
+     * Replace the stored password hash (used for rehash-on-login)
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE LOWER(u.email) = LOWER(:email)")
+    int updatePasswordHash(@Param("email") String email, @Param("passwordHash") String passwordHash);
+
     /**
      * Update failed login attempts
      */
@@ -97,6 +106,13 @@ public interface UserRepository extends BaseRepository<User> {
     @Query("UPDATE User u SET u.accountLockedUntil = :lockUntil WHERE u.id = :userId")
     void lockAccount(@Param("userId") UUID userId, @Param("lockUntil") LocalDateTime lockUntil);
 
+    /**
+     * Lock user account (looked up by email) until specified time
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.accountLockedUntil = :lockUntil WHERE LOWER(u.email) = LOWER(:email)")
+    int lockAccountByEmail(@Param("email") String email, @Param("lockUntil") LocalDateTime lockUntil);
+
     /**
      * Count users by role
      */
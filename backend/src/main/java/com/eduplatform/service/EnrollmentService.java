@@ -1,5 +1,8 @@
 package com.eduplatform.service;
 
+import com.eduplatform.dto.request.BulkEnrollmentRequest;
+import com.eduplatform.dto.response.ActivityFeedDto;
+import com.eduplatform.dto.response.BulkEnrollmentResultDto;
 import com.eduplatform.dto.response.EnrollmentDto;
 import com.eduplatform.dto.response.EnrollmentStatsDto;
 
@@ -13,6 +16,7 @@ import org.springframework.data.domain.Pageable;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Enrollment Service Interface
@@ -22,6 +26,12 @@ public interface EnrollmentService extends BaseService<Enrollment, EnrollmentDto
 
     EnrollmentDto enrollStudent(UUID studentId, UUID courseId);
 
+    /**
+     * Enroll a cohort by email; progress is reported after every chunk written
+     */
+    BulkEnrollmentResultDto bulkEnroll(UUID courseId, BulkEnrollmentRequest request, UUID instructorId,
+                                       Consumer<BulkEnrollmentResultDto.Progress> progress);
+
     Optional<EnrollmentDto> findByStudentAndCourse(UUID studentId, UUID courseId);
 
     Page<EnrollmentDto> findByStudent(UUID studentId, Pageable pageable);
@@ -43,4 +53,19 @@ public interface EnrollmentService extends BaseService<Enrollment, EnrollmentDto
     List<EnrollmentDto> getCompletedEnrollments(UUID studentId);
 
     EnrollmentStatsDto getEnrollmentStatistics(UUID courseId);
+
+    /**
+     * Latest enrollments and completions of a course, newest first; older pages via before
+     */
+    ActivityFeedDto getCourseActivity(UUID courseId, UUID userId, Long before, int size);
+
+    /**
+     * Latest enrollments and completions across an instructor's courses, newest first
+     */
+    ActivityFeedDto getInstructorActivity(UUID instructorId, Long before, int size);
+
+    /**
+     * Recount drifted course seat counters from enrollments; returns the number corrected
+     */
+    int reconcileSeats();
 }
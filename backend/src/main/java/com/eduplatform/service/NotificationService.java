@@ -6,6 +6,7 @@ import com.eduplatform.model.enums.NotificationType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.UUID;
 
 /**
@@ -32,5 +33,15 @@ public interface NotificationService {
 
     void sendEnrollmentNotification(UUID studentId, UUID courseId);
 
+    /**
+     * Enrollment notifications for many students of one course, saved as one batch
+     */
+    void sendEnrollmentNotifications(Collection<UUID> studentIds, UUID courseId);
+
     void sendCourseCompletionNotification(UUID studentId, UUID courseId);
+
+    /**
+     * Completion notifications for many students of one course, saved as one batch
+     */
+    void sendCourseCompletionNotifications(Collection<UUID> studentIds, UUID courseId);
 }
@@ -1,9 +1,13 @@
 package com.eduplatform.service;
 
+import com.eduplatform.dto.request.ProgressSyncRequest;
 import com.eduplatform.dto.request.UpdateProgressRequest;
 import com.eduplatform.dto.response.CourseProgressSummaryDto;
+import com.eduplatform.dto.response.CourseRecomputeStatusDto;
 import com.eduplatform.dto.response.LearningAnalyticsDto;
+import com.eduplatform.dto.response.LessonEngagementDto;
 import com.eduplatform.dto.response.LessonProgressDto;
+import com.eduplatform.dto.response.ProgressSyncResultDto;
 import com.eduplatform.dto.response.UserProgressDto;
 
 // import com.eduplatform.dto.response.CourseProgressSummaryDto;
@@ -26,6 +30,16 @@ public interface ProgressService {
 
     LessonProgressDto updateLessonProgress(UUID userId, UUID lessonId, UpdateProgressRequest request);
 
+    /**
+     * Accept a playback heartbeat; it is coalesced and written behind rather than persisted inline
+     */
+    void recordProgressHeartbeat(UUID userId, UUID lessonId, UpdateProgressRequest request);
+
+    /**
+     * Apply a batch of offline progress events at most once each, in a single transaction
+     */
+    ProgressSyncResultDto syncProgress(UUID userId, ProgressSyncRequest request);
+
     LessonProgressDto markLessonComplete(UUID userId, UUID lessonId);
 
     LessonProgressDto startLesson(UUID userId, UUID lessonId);
@@ -36,9 +50,29 @@ public interface ProgressService {
     
     LearningAnalyticsDto getLearningAnalytics(UUID userId);
 
+    /**
+     * Video engagement histogram of a lesson (views per position bin)
+     */
+    LessonEngagementDto getLessonEngagement(UUID lessonId);
+
     // CourseProgressSummaryDto getCourseProgressSummary(UUID courseId);
 
+    /**
+     * Full recount of a user's course progress; used as an explicit repair, not on each completion
+     */
     void recalculateCourseProgress(UUID userId, UUID courseId);
 
+    /**
+     * Rebuild the user_progress read model for all enrollments in the background
+     */
+    void rebuildUserProgressReadModel();
+
+    /**
+     * Queue a set-based recompute of every enrollment in a course
+     */
+    CourseRecomputeStatusDto recomputeCourseProgress(UUID courseId);
+
+    Optional<CourseRecomputeStatusDto> getCourseRecomputeStatus(UUID courseId);
+
     // LearningAnalyticsDto getLearningAnalytics(UUID userId);
 }
@@ -0,0 +1,193 @@
+package com.eduplatform.service.activity;
+
+import com.eduplatform.model.enums.LearningEventType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Activity Feed
+ * Time-ordered feeds of enrollments and course completions, one Redis sorted set per course and
+ * one per instructor. Appends add to both sets and trim them to the retention horizon and a
+ * maximum length in the same script, so a feed never grows without bound; reads are a score
+ * range (newest first, paged by the score of the last event seen), O(log n + page size).
+ * The feed is best effort: it is written after commit and a Redis outage only loses entries.
+ */
+@Slf4j
+@Component
+public class ActivityFeed {
+
+    private static final String COURSE_KEY_PREFIX = "activity:course:";
+    private static final String INSTRUCTOR_KEY_PREFIX = "activity:instructor:";
+
+    /**
+     * KEYS[1] = feed
+     * ARGV[1] = oldest score kept, ARGV[2] = max entries, ARGV[3] = ttl (ms), ARGV[4..] = score, member pairs
+     */
+    private static final RedisScript<Long> APPEND_SCRIPT = new DefaultRedisScript<>("""
+            for i = 4, #ARGV, 2 do
+                redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[1])
+            redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[2]) + 1))
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return redis.call('ZCARD', KEYS[1])
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final int maxEntries;
+
+    // Scores are epoch microseconds-ish (millis * 1000 + sequence) so events of one millisecond stay distinct
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final Cache<UUID, UUID> courseInstructors = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    public ActivityFeed(StringRedisTemplate redisTemplate, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                        @Value("${app.activity-feed.retention:30d}") Duration retention,
+                        @Value("${app.activity-feed.max-entries:10000}") int maxEntries) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Append one event per student to the course's and its instructor's feeds once the current
+     * transaction commits
+     */
+    public void record(LearningEventType type, UUID courseId, Collection<UUID> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        Instant occurredAt = Instant.now();
+        List<Entry> entries = studentIds.stream()
+                .map(studentId -> new Entry(type, courseId, studentId, occurredAt))
+                .toList();
+        afterCommit(() -> append(courseId, entries));
+    }
+
+    public void record(LearningEventType type, UUID courseId, UUID studentId) {
+        record(type, courseId, List.of(studentId));
+    }
+
+    public Page getCourseFeed(UUID courseId, Long before, int size) {
+        return read(COURSE_KEY_PREFIX + courseId, before, size);
+    }
+
+    public Page getInstructorFeed(UUID instructorId, Long before, int size) {
+        return read(INSTRUCTOR_KEY_PREFIX + instructorId, before, size);
+    }
+
+    private Page read(String key, Long before, int size) {
+        // Scores are integers, so "older than before" is an inclusive bound of before - 1
+        double min = score(Instant.now().minus(retention), 0);
+        double max = before != null ? before - 1 : Double.POSITIVE_INFINITY;
+        Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                .reverseRangeByScoreWithScores(key, min, max, 0, size);
+
+        List<Entry> entries = new ArrayList<>();
+        Long lastScore = null;
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                Entry entry = fromJson(tuple.getValue());
+                if (entry != null) {
+                    entries.add(entry);
+                }
+                lastScore = tuple.getScore() != null ? tuple.getScore().longValue() : lastScore;
+            }
+        }
+        return new Page(entries, tuples != null && tuples.size() == size ? lastScore : null);
+    }
+
+    private void append(UUID courseId, List<Entry> entries) {
+        try {
+            List<String> args = new ArrayList<>(3 + entries.size() * 2);
+            args.add(Long.toString(score(Instant.now().minus(retention), 0)));
+            args.add(Integer.toString(maxEntries));
+            args.add(Long.toString(retention.toMillis()));
+            for (Entry entry : entries) {
+                args.add(Long.toString(score(entry.occurredAt(), sequence.getAndIncrement())));
+                args.add(objectMapper.writeValueAsString(entry));
+            }
+
+            String[] argv = args.toArray(String[]::new);
+            redisTemplate.execute(APPEND_SCRIPT, List.of(COURSE_KEY_PREFIX + courseId), (Object[]) argv);
+            UUID instructorId = findInstructorId(courseId);
+            if (instructorId != null) {
+                redisTemplate.execute(APPEND_SCRIPT, List.of(INSTRUCTOR_KEY_PREFIX + instructorId), (Object[]) argv);
+            }
+        } catch (Exception e) {
+            log.warn("Could not append {} activity event(s) for course {}: {}", entries.size(), courseId, e.getMessage());
+        }
+    }
+
+    private UUID findInstructorId(UUID courseId) {
+        // Unknown courses are not cached (the loader returns null), so they are looked up again
+        return courseInstructors.get(courseId, id -> {
+            List<UUID> instructors = jdbcTemplate.queryForList(
+                    "SELECT instructor_id FROM courses WHERE id = ?", UUID.class, id);
+            return instructors.isEmpty() ? null : instructors.get(0);
+        });
+    }
+
+    private Entry fromJson(String member) {
+        try {
+            return objectMapper.readValue(member, Entry.class);
+        } catch (JsonProcessingException e) {
+            log.debug("Skipping unreadable activity feed entry: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static long score(Instant at, int sequence) {
+        return at.toEpochMilli() * 1000 + Math.floorMod(sequence, 1000);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public record Entry(LearningEventType type, UUID courseId, UUID studentId, Instant occurredAt) {
+    }
+
+    /**
+     * Newest-first page; nextBefore is the score to continue from, or null on the last page
+     */
+    public record Page(List<Entry> entries, Long nextBefore) {
+    }
+}
@@ -13,6 +13,7 @@ import com.eduplatform.model.User;
 import com.eduplatform.model.enums.UserRole;
 import com.eduplatform.model.enums.UserStatus;
 import com.eduplatform.repository.UserRepository;
+import com.eduplatform.security.UserPrincipal;
 import com.eduplatform.service.EmailService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,6 +43,9 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final CustomUserDetailsService userDetailsService;
     private final EmailService emailService;
+    private final LoginAttemptService loginAttemptService;
+    private final LoginBookkeepingBuffer loginBookkeepingBuffer;
+    private final UserLookupCache userLookupCache;
 
     /**
      * Authenticate user and generate JWT tokens
@@ -50,15 +54,19 @@ public class AuthService {
     public AuthResponse.Login login(AuthRequest.Login request) {
         log.info("Attempting login for user: {}", request.getEmail());
 
+        // Reject locked accounts before spending a password hash on them
+        if (loginAttemptService.isLocked(request.getEmail())) {
+            throw new UnauthorizedException("Account is temporarily locked. Please try again later.");
+        }
+
         // Authenticate user
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
 
-        // Get user details
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        User user = userRepository.findByEmailIgnoreCase(request.getEmail())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        // Get user details (the principal already carries the user loaded for authentication)
+        UserPrincipal userDetails = (UserPrincipal) authentication.getPrincipal();
+        User user = userDetails.getUser();
 
         // Check account status
         validateUserAccount(user);
@@ -67,11 +75,9 @@ public class AuthService {
         String accessToken = jwtService.generateToken(userDetails);
         String refreshToken = jwtService.generateRefreshToken(userDetails);
 
-        // Update last login time and reset failed attempts
-        user.setLastLoginAt(LocalDateTime.now());
-        user.setFailedLoginAttempts(0);
-        user.setAccountLockedUntil(null);
-        userRepository.save(user);
+        // Update last login time and reset failed attempts (write-behind, batched)
+        LocalDateTime loginAt = LocalDateTime.now();
+        loginBookkeepingBuffer.recordLogin(user.getId(), loginAt);
 
         log.info("User {} logged in successfully", request.getEmail());
 
@@ -85,8 +91,7 @@ public class AuthService {
                 .role(user.getRole().name())
                 .status(user.getStatus().name())
                 .emailVerified(user.isEmailVerified())
-                .lastLoginAt(user.getLastLoginAt() != null ? 
-    user.getLastLoginAt().atOffset(ZoneOffset.UTC) : null)
+                .lastLoginAt(loginAt.atOffset(ZoneOffset.UTC))
                 .createdAt(user.getCreatedAt() != null ? 
     user.getCreatedAt().atOffset(ZoneOffset.UTC) : null)
                 .build();
@@ -295,7 +300,7 @@ public class AuthService {
      * Get user profile information
      */
     public AuthResponse.Profile getProfile(String userEmail) {
-        User user = userRepository.findByEmailIgnoreCase(userEmail)
+        User user = userLookupCache.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         // FIXED: Remove .email() - Profile doesn't have email field, use UserInfo
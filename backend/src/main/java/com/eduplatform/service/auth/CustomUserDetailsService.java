@@ -3,25 +3,34 @@ package com.eduplatform.service.auth;
 import com.eduplatform.model.User;
 import com.eduplatform.repository.UserRepository;
 import com.eduplatform.security.UserPrincipal;
+import com.eduplatform.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Custom User Details Service
  * Loads user details for Spring Security authentication
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
 
+    /**
+     * Load user by email (served from the per-node lookup cache; called on every JWT request)
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmailIgnoreCase(email)
+        User user = userLookupCache.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
         return new UserPrincipal(user);
@@ -36,4 +45,20 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         return new UserPrincipal(user);
     }
+
+    /**
+     * Persist a re-encoded password hash after a successful login
+     * (called by DaoAuthenticationProvider when the stored hash uses an outdated algorithm or cost)
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository.updatePasswordHash(userDetails.getUsername(), newPassword);
+        userLookupCache.evict(userDetails.getUsername());
+        if (userDetails instanceof UserPrincipal principal) {
+            principal.getUser().setPasswordHash(newPassword);
+        }
+        log.debug("Password hash upgraded for user: {}", SecurityUtils.maskEmail(userDetails.getUsername()));
+        return userDetails;
+    }
 }
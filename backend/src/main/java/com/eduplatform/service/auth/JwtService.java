@@ -4,6 +4,7 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -21,6 +22,8 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    public static final String ROLE_CLAIM = "role";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
@@ -66,6 +69,19 @@ public class JwtService {
                 .getPayload();             // NEW: getPayload instead of getBody
     }
 
+    /**
+     * Claims of a correctly signed, unexpired token, or null; never throws or logs
+     * (called for every request by RateLimitingFilter)
+     */
+    public Claims extractValidClaims(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            return claims.getExpiration() == null || claims.getExpiration().after(new Date()) ? claims : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * Check if token is expired
      */
@@ -78,6 +94,12 @@ public class JwtService {
      */
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        // Informational only (picks the rate limit tier before authentication); authorization loads the user
+        userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith("ROLE_"))
+                .findFirst()
+                .ifPresent(authority -> claims.put(ROLE_CLAIM, authority.substring("ROLE_".length())));
         return generateToken(claims, userDetails.getUsername());
     }
 
@@ -0,0 +1,113 @@
+package com.eduplatform.service.auth;
+
+import com.eduplatform.config.security.AccountLockedEvent;
+import com.eduplatform.util.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Login Attempt Service
+ * Tracks failed logins and lockout windows in Redis so that login attempts never
+ * write to the users table. The lock is mirrored to users.account_locked_until
+ * (asynchronously) only when a lockout actually triggers.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoginAttemptService {
+
+    private static final String FAILED_PREFIX = "auth:failed:";
+    private static final String LOCKED_PREFIX = "auth:locked:";
+
+    private static final int MAX_FAILED_ATTEMPTS = 5;
+    private static final Duration FAILED_ATTEMPT_WINDOW = Duration.ofMinutes(15);
+    private static final Duration LOCKOUT_DURATION = Duration.ofMinutes(30);
+
+    /**
+     * KEYS[1] = failed counter, KEYS[2] = lock flag
+     * ARGV[1] = counter window (s), ARGV[2] = max attempts, ARGV[3] = lock duration (s)
+     * Returns {attempts, 1 if this call created the lock else 0}
+     */
+    private static final RedisScript<List> RECORD_FAILURE_SCRIPT = new DefaultRedisScript<>("""
+            local attempts = redis.call('INCR', KEYS[1])
+            if attempts == 1 then
+                redis.call('EXPIRE', KEYS[1], ARGV[1])
+            end
+            if attempts >= tonumber(ARGV[2]) then
+                if redis.call('SET', KEYS[2], '1', 'NX', 'EX', ARGV[3]) then
+                    redis.call('DEL', KEYS[1])
+                    return {attempts, 1}
+                end
+            end
+            return {attempts, 0}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Record a failed login; triggers a lockout once the threshold is reached
+     */
+    public void recordFailure(String email) {
+        String normalized = normalize(email);
+        try {
+            List<?> result = redisTemplate.execute(RECORD_FAILURE_SCRIPT,
+                    List.of(FAILED_PREFIX + normalized, LOCKED_PREFIX + normalized),
+                    String.valueOf(FAILED_ATTEMPT_WINDOW.toSeconds()),
+                    String.valueOf(MAX_FAILED_ATTEMPTS),
+                    String.valueOf(LOCKOUT_DURATION.toSeconds()));
+
+            if (result != null && result.size() == 2 && toLong(result.get(1)) == 1L) {
+                LocalDateTime lockedUntil = LocalDateTime.now().plus(LOCKOUT_DURATION);
+                log.warn("Account locked for user: {} due to {} failed login attempts",
+                        SecurityUtils.maskEmail(email), toLong(result.get(0)));
+                eventPublisher.publishEvent(new AccountLockedEvent(normalized, lockedUntil));
+            }
+        } catch (DataAccessException e) {
+            log.error("Failed to record login failure for {}: {}", SecurityUtils.maskEmail(email), e.getMessage());
+        }
+    }
+
+    /**
+     * Clear the failed-attempt counter after a successful login (Redis only, no DB write)
+     */
+    public void recordSuccess(String email) {
+        try {
+            redisTemplate.delete(FAILED_PREFIX + normalize(email));
+        } catch (DataAccessException e) {
+            log.error("Failed to reset login attempts for {}: {}", SecurityUtils.maskEmail(email), e.getMessage());
+        }
+    }
+
+    /**
+     * Check whether the account is inside an active lockout window
+     */
+    public boolean isLocked(String email) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(LOCKED_PREFIX + normalize(email)));
+        } catch (DataAccessException e) {
+            // Fall back to the persisted users.account_locked_until check
+            log.error("Failed to read lockout state for {}: {}", SecurityUtils.maskEmail(email), e.getMessage());
+            return false;
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+}
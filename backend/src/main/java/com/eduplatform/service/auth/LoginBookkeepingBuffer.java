@@ -0,0 +1,102 @@
+package com.eduplatform.service.auth;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Login Bookkeeping Buffer
+ * Write-behind buffer for per-login user updates (last login time, failed-attempt reset).
+ * Logins are coalesced per user and flushed as a single multi-row UPDATE every few seconds,
+ * instead of a full entity save (and version bump) on every login.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginBookkeepingBuffer {
+
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<UUID, LocalDateTime> pendingLogins = new ConcurrentHashMap<>();
+
+    /**
+     * Record a successful login; repeated logins of the same user keep the latest time
+     */
+    public void recordLogin(UUID userId, LocalDateTime loginAt) {
+        pendingLogins.merge(userId, loginAt, (current, incoming) -> incoming.isAfter(current) ? incoming : current);
+    }
+
+    public int getPendingCount() {
+        return pendingLogins.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.login-bookkeeping.flush-interval-ms:5000}")
+    public void flush() {
+        if (pendingLogins.isEmpty()) {
+            return;
+        }
+
+        // Detach entries one by one; an entry updated concurrently stays for the next flush
+        List<Map.Entry<UUID, LocalDateTime>> batch = new ArrayList<>(pendingLogins.size());
+        for (Map.Entry<UUID, LocalDateTime> entry : pendingLogins.entrySet()) {
+            UUID userId = entry.getKey();
+            LocalDateTime loginAt = entry.getValue();
+            if (pendingLogins.remove(userId, loginAt)) {
+                batch.add(Map.entry(userId, loginAt));
+            }
+        }
+
+        for (int from = 0; from < batch.size(); from += FLUSH_CHUNK_SIZE) {
+            List<Map.Entry<UUID, LocalDateTime>> chunk = batch.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, batch.size()));
+            try {
+                int updated = updateChunk(chunk);
+                log.debug("Flushed login bookkeeping for {} user(s), {} row(s) updated", chunk.size(), updated);
+            } catch (Exception e) {
+                log.error("Failed to flush login bookkeeping for {} user(s): {}", chunk.size(), e.getMessage());
+                chunk.forEach(entry -> recordLogin(entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Flush whatever is left before the datasource goes away
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing {} pending login bookkeeping entries on shutdown", pendingLogins.size());
+        flush();
+    }
+
+    private int updateChunk(List<Map.Entry<UUID, LocalDateTime>> chunk) {
+        String values = String.join(", ", Collections.nCopies(chunk.size(), "(CAST(? AS uuid), CAST(? AS timestamp))"));
+        // A lock written after the login (newer failures) is kept; an expired one is cleared
+        String sql = "UPDATE users u SET " +
+                "last_login_at = GREATEST(u.last_login_at, v.login_at), " +
+                "failed_login_attempts = 0, " +
+                "account_locked_until = CASE WHEN u.account_locked_until <= v.login_at THEN NULL " +
+                "ELSE u.account_locked_until END " +
+                "FROM (VALUES " + values + ") AS v(id, login_at) " +
+                "WHERE u.id = v.id";
+
+        Object[] args = new Object[chunk.size() * 2];
+        int i = 0;
+        for (Map.Entry<UUID, LocalDateTime> entry : chunk) {
+            args[i++] = entry.getKey().toString();
+            args[i++] = entry.getValue();
+        }
+        return jdbcTemplate.update(sql, args);
+    }
+}
@@ -0,0 +1,207 @@
+package com.eduplatform.service.auth;
+
+import com.eduplatform.config.RateLimitProperties;
+import com.eduplatform.exception.RateLimitException;
+import com.eduplatform.util.SecurityUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Login Throttle Service
+ * Pre-hash gate for POST /auth/login. Applies sliding-window limits per client IP,
+ * per IP subnet and per account before the AuthenticationManager (and BCrypt) runs.
+ * Repeat offenders get exponentially growing back-off windows. The account limit is per account
+ * across all networks, so spreading guesses over many subnets does not multiply the budget; an
+ * owner caught behind it waits out a back-off that starts at a few seconds.
+ * State lives in Redis; if Redis is unavailable a node-local token bucket is used instead.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoginThrottleService {
+
+    private static final String KEY_PREFIX = "auth:throttle:";
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+    private static final int MAX_LOCAL_BUCKETS = 50_000;
+    private static final Duration LOCAL_BUCKET_IDLE = Duration.ofMinutes(10);
+    private static final Pattern IPV4_LITERAL = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    /**
+     * Per dimension i (0-based) the keys are:
+     *   KEYS[4i+1] current window counter, KEYS[4i+2] previous window counter,
+     *   KEYS[4i+3] back-off block flag,    KEYS[4i+4] strike counter
+     * ARGV[1] = elapsed fraction of the current window, ARGV[2] = window (ms),
+     * ARGV[3] = back-off base (ms), ARGV[4] = back-off max (ms), ARGV[5..] = limit per dimension
+     * Returns {0, 0} when allowed, otherwise {dimension (1-based), retry-after (ms)}
+     */
+    private static final RedisScript<List> THROTTLE_SCRIPT = new DefaultRedisScript<>("""
+            local elapsed = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            local base = tonumber(ARGV[3])
+            local maxBackoff = tonumber(ARGV[4])
+            local dims = #KEYS / 4
+            for i = 0, dims - 1 do
+                local ttl = redis.call('PTTL', KEYS[i * 4 + 3])
+                if ttl > 0 then
+                    return {i + 1, ttl}
+                end
+            end
+            for i = 0, dims - 1 do
+                local limit = tonumber(ARGV[5 + i])
+                local curr = tonumber(redis.call('GET', KEYS[i * 4 + 1]) or '0')
+                local prev = tonumber(redis.call('GET', KEYS[i * 4 + 2]) or '0')
+                if prev * (1 - elapsed) + curr >= limit then
+                    local strikes = redis.call('INCR', KEYS[i * 4 + 4])
+                    redis.call('PEXPIRE', KEYS[i * 4 + 4], maxBackoff * 2)
+                    local backoff = math.floor(math.min(base * 2 ^ (strikes - 1), maxBackoff))
+                    redis.call('SET', KEYS[i * 4 + 3], strikes, 'PX', backoff)
+                    return {i + 1, backoff}
+                end
+            end
+            for i = 0, dims - 1 do
+                redis.call('INCR', KEYS[i * 4 + 1])
+                redis.call('PEXPIRE', KEYS[i * 4 + 1], window * 2)
+            end
+            return {0, 0}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimitProperties rateLimitProperties;
+
+    private final Cache<String, Bucket> localBuckets = Caffeine.newBuilder()
+            .maximumSize(MAX_LOCAL_BUCKETS)
+            .expireAfterAccess(LOCAL_BUCKET_IDLE)
+            .build();
+
+    /**
+     * Throws RateLimitException if the login attempt must be rejected
+     */
+    public void checkLoginAllowed(String clientIp, String email) {
+        if (!rateLimitProperties.isEnabled()) {
+            return;
+        }
+
+        List<Dimension> dimensions = List.of(
+                new Dimension("ip", clientIp, rateLimitProperties.getAuthRequestsPerMinute()),
+                new Dimension("subnet", subnetOf(clientIp), rateLimitProperties.getAuthSubnetRequestsPerMinute()),
+                new Dimension("account", normalize(email), rateLimitProperties.getAuthAccountRequestsPerMinute()));
+
+        long retryAfterMillis;
+        Dimension rejectedBy;
+        try {
+            List<?> result = evaluateInRedis(dimensions);
+            int index = result == null ? 0 : (int) toLong(result.get(0));
+            if (index == 0) {
+                return;
+            }
+            rejectedBy = dimensions.get(index - 1);
+            retryAfterMillis = toLong(result.get(1));
+        } catch (DataAccessException e) {
+            log.warn("Login throttle falling back to local buckets: {}", e.getMessage());
+            Map.Entry<Dimension, Long> rejection = evaluateLocally(dimensions);
+            if (rejection == null) {
+                return;
+            }
+            rejectedBy = rejection.getKey();
+            retryAfterMillis = rejection.getValue();
+        }
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis + 999));
+        log.warn("Login throttled by {} limit for ip: {}, account: {} (retry after {}s)",
+                rejectedBy.name(), clientIp, SecurityUtils.maskEmail(email), retryAfterSeconds);
+        throw new RateLimitException("Too many login attempts. Please try again later.",
+                Map.of("retryAfter", retryAfterSeconds, "limit", rejectedBy.name()));
+    }
+
+    private List<?> evaluateInRedis(List<Dimension> dimensions) {
+        long now = System.currentTimeMillis();
+        long windowMillis = WINDOW.toMillis();
+        long windowIndex = now / windowMillis;
+        double elapsed = (double) (now % windowMillis) / windowMillis;
+
+        List<String> keys = new ArrayList<>(dimensions.size() * 4);
+        List<String> args = new ArrayList<>(4 + dimensions.size());
+        args.add(String.valueOf(elapsed));
+        args.add(String.valueOf(windowMillis));
+        args.add(String.valueOf(TimeUnit.SECONDS.toMillis(rateLimitProperties.getAuthBackoffBaseSeconds())));
+        args.add(String.valueOf(TimeUnit.SECONDS.toMillis(rateLimitProperties.getAuthBackoffMaxSeconds())));
+
+        for (Dimension dimension : dimensions) {
+            String base = KEY_PREFIX + dimension.name() + ":" + dimension.value();
+            keys.add(base + ":" + windowIndex);
+            keys.add(base + ":" + (windowIndex - 1));
+            keys.add(base + ":block");
+            keys.add(base + ":strikes");
+            args.add(String.valueOf(dimension.limit()));
+        }
+
+        return redisTemplate.execute(THROTTLE_SCRIPT, keys, args.toArray());
+    }
+
+    private Map.Entry<Dimension, Long> evaluateLocally(List<Dimension> dimensions) {
+        for (Dimension dimension : dimensions) {
+            Bucket bucket = localBuckets.get(dimension.name() + ":" + dimension.value(),
+                    k -> Bucket.builder()
+                            .addLimit(Bandwidth.builder()
+                                    .capacity(dimension.limit())
+                                    .refillGreedy(dimension.limit(), WINDOW)
+                                    .build())
+                            .build());
+            ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+            if (!probe.isConsumed()) {
+                return Map.entry(dimension, TimeUnit.NANOSECONDS.toMillis(probe.getNanosToWaitForRefill()));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * /24 for IPv4, /64 for IPv6 (parsed, so compressed forms such as 2001:db8::1 mask correctly)
+     */
+    private static String subnetOf(String ip) {
+        // Only literals are parsed; anything else would make InetAddress resolve a host name
+        if (ip == null || !(ip.contains(":") || IPV4_LITERAL.matcher(ip).matches())) {
+            return ip == null ? "unknown" : ip;
+        }
+        try {
+            byte[] address = InetAddress.getByName(ip).getAddress();
+            int prefix = address.length == 4 ? 24 : 64;
+            Arrays.fill(address, prefix / 8, address.length, (byte) 0);
+            return InetAddress.getByAddress(address).getHostAddress() + "/" + prefix;
+        } catch (UnknownHostException e) {
+            return ip;
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+
+    private record Dimension(String name, String value, int limit) {
+    }
+}
@@ -1,35 +1,65 @@
 package com.eduplatform.service.auth;
 
-// import com.eduplatform.model.User;
-// import com.eduplatform.repository.UserRepository;
+import com.eduplatform.config.security.TotpSecretEncryptor;
+import com.eduplatform.exception.BadRequestException;
+import com.eduplatform.exception.RateLimitException;
+import com.eduplatform.exception.ResourceNotFoundException;
+import com.eduplatform.model.User;
+import com.eduplatform.repository.UserRepository;
 // import com.eduplatform.service.EmailService;
+import com.eduplatform.service.auth.OneTimeCodeStore.Purpose;
+import com.eduplatform.service.auth.OneTimeCodeStore.Verification;
 import com.eduplatform.util.SecurityUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
 // import java.util.Optional;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Multi-Factor Authentication Service
- * Handles MFA token generation and verification
+ * Handles MFA token generation and verification.
+ * Users enrolled in TOTP are verified locally against their authenticator app code: the secret
+ * comes from the node's user lookup cache, which every node evicts when a user changes, so a
+ * correct code costs no Redis or database round trip. Emailed codes remain available as a fallback.
+ * Emailed codes live in OneTimeCodeStore, which consumes them atomically and locks the
+ * user out of MFA after repeated wrong codes (TOTP guesses included). Only a failed TOTP check
+ * reaches Redis, where the shared lockout is enforced; a node that has not yet seen a lockout
+ * therefore still accepts one correct TOTP code during it, after which the lockout is cached
+ * locally and refuses further guesses on that node.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MfaService {
 
-    private final RedisTemplate<String, String> redisTemplate;
+    private final OneTimeCodeStore oneTimeCodeStore;
     // private final EmailService emailService;
-    // private final UserRepository userRepository;
+    private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
+    private final TotpService totpService;
+    private final TotpSecretEncryptor totpSecretEncryptor;
+    private final PasswordEncoder passwordEncoder;
     
-    private static final String MFA_TOKEN_PREFIX = "mfa:";
     private static final int MFA_TOKEN_EXPIRY_MINUTES = 5;
     // private static final int MFA_TOKEN_LENGTH = 6;
 
+    // Lockouts seen on this node, so repeat guesses during a lockout are refused without a Redis round trip
+    private final Cache<String, Long> knownLockouts = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .maximumSize(10_000)
+            .build();
+
     /**
      * Generate and send MFA token
      */
@@ -41,9 +71,11 @@ public class MfaService {
             // Generate 6-digit code
             String mfaToken = SecurityUtils.generateVerificationCode();
             
-            // Store in Redis with expiration
-            String key = MFA_TOKEN_PREFIX + email;
-            redisTemplate.opsForValue().set(key, mfaToken, Duration.ofMinutes(MFA_TOKEN_EXPIRY_MINUTES));
+            // Store in Redis with expiration (refused while the user is locked out)
+            if (!oneTimeCodeStore.issue(Purpose.MFA, email, mfaToken, Duration.ofMinutes(MFA_TOKEN_EXPIRY_MINUTES))) {
+                log.warn("MFA token not issued, user {} is locked out", SecurityUtils.maskEmail(email));
+                return false;
+            }
             
             // Send via email
             sendMfaTokenEmail(email, mfaToken);
@@ -58,26 +90,142 @@ public class MfaService {
     }
 
     /**
-     * Verify MFA token
+     * Verify MFA token (TOTP first for enrolled users, then the emailed code)
      */
     public boolean verifyMfaToken(String email, String token) {
+        String subject = email.trim().toLowerCase(Locale.ROOT);
+        Long lockedUntil = knownLockouts.getIfPresent(subject);
+        if (lockedUntil != null && lockedUntil > System.currentTimeMillis()) {
+            throw lockedOut(TimeUnit.MILLISECONDS.toSeconds(lockedUntil - System.currentTimeMillis()) + 1);
+        }
+
+        // TOTP is checked locally; the cached user is evicted on every node when the secret changes
+        User totpUser = userLookupCache.findByEmail(email)
+                .filter(User::isTotpEnabled)
+                .orElse(null);
+        if (totpUser != null && verifyTotp(totpUser, token)) {
+            log.info("TOTP code verified successfully for user: {}", SecurityUtils.maskEmail(email));
+            return true;
+        }
+        // Failures go to Redis: the verify script enforces the shared lockout and counts the guess
+        return verifyEmailToken(subject, token, totpUser != null);
+    }
+
+    /**
+     * Begin TOTP enrollment: store a new encrypted secret (not yet active) and
+     * return it with the otpauth:// URI for the authenticator app. An active authenticator is
+     * only replaced with proof of it (a current code) or of the password.
+     */
+    @Transactional
+    public TotpEnrollment beginTotpEnrollment(String email, String currentCode, String password) {
+        User user = userRepository.findByEmailIgnoreCase(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (user.isTotpEnabled()) {
+            requireCurrentFactor(user, currentCode, password);
+        }
+
+        String secret = totpService.generateSecret();
+        user.setMfaTotpSecret(totpSecretEncryptor.encrypt(secret));
+        user.setMfaTotpEnabled(false);
+        user.setMfaTotpEnabledAt(null);
+        userRepository.save(user);
+
+        log.info("TOTP enrollment started for user: {}", SecurityUtils.maskEmail(email));
+        return new TotpEnrollment(secret, totpService.buildOtpAuthUri(user.getEmail(), secret));
+    }
+
+    /**
+     * Activate TOTP once the user proves their authenticator produces valid codes
+     */
+    @Transactional
+    public void confirmTotpEnrollment(String email, String code) {
+        User user = userRepository.findByEmailIgnoreCase(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (user.getMfaTotpSecret() == null) {
+            throw new BadRequestException("TOTP enrollment has not been started");
+        }
+        if (!totpService.verify(user.getId(), totpSecretEncryptor.decrypt(user.getMfaTotpSecret()), code)) {
+            throw new BadRequestException("Invalid verification code");
+        }
+
+        user.setMfaTotpEnabled(true);
+        user.setMfaTotpEnabledAt(LocalDateTime.now());
+        userRepository.save(user);
+        log.info("TOTP enabled for user: {}", SecurityUtils.maskEmail(email));
+    }
+
+    /**
+     * Remove the TOTP secret, given a current code or the password; the user falls back to emailed codes
+     */
+    @Transactional
+    public void disableTotp(String email, String currentCode, String password) {
+        User user = userRepository.findByEmailIgnoreCase(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        requireCurrentFactor(user, currentCode, password);
+        user.setMfaTotpSecret(null);
+        user.setMfaTotpEnabled(false);
+        user.setMfaTotpEnabledAt(null);
+        userRepository.save(user);
+        log.info("TOTP disabled for user: {}", SecurityUtils.maskEmail(email));
+    }
+
+    /**
+     * Whether the user has an active TOTP authenticator
+     */
+    public boolean isTotpEnabled(String email) {
+        return userRepository.findByEmailIgnoreCase(email).map(User::isTotpEnabled).orElse(false);
+    }
+
+    /**
+     * A session alone cannot change the second factor: the password, a code from the active
+     * authenticator or a pending emailed code is required. Failures count against the MFA lockout.
+     */
+    private void requireCurrentFactor(User user, String code, String password) {
+        if (password != null && !password.isEmpty() && passwordEncoder.matches(password, user.getPasswordHash())) {
+            return;
+        }
+        if (code != null && user.isTotpEnabled() && verifyTotp(user, code)) {
+            return;
+        }
+        String subject = user.getEmail().trim().toLowerCase(Locale.ROOT);
+        if (code != null && verifyEmailToken(subject, code, true)) {
+            return;
+        }
+        if (code == null) {
+            // A wrong password alone still counts as a guess
+            verifyEmailToken(subject, "", true);
+        }
+        throw new BadRequestException("A current verification code or your password is required");
+    }
+
+    private boolean verifyTotp(User user, String code) {
+        return totpService.verify(user.getId(), totpSecretEncryptor.decrypt(user.getMfaTotpSecret()), code);
+    }
+
+    private boolean verifyEmailToken(String email, String token, boolean totpTried) {
+        Verification verification;
         try {
-            String key = MFA_TOKEN_PREFIX + email;
-            String storedToken = redisTemplate.opsForValue().get(key);
-            
-            if (storedToken != null && storedToken.equals(token)) {
-                // Remove token after successful verification
-                redisTemplate.delete(key);
+            // A failed TOTP guess counts against the limit even when no emailed code is pending
+            verification = oneTimeCodeStore.verify(Purpose.MFA, email, token, totpTried);
+        } catch (DataAccessException e) {
+            log.error("Error verifying MFA token for {}: {}", SecurityUtils.maskEmail(email), e.getMessage());
+            return false;
+        }
+
+        switch (verification.status()) {
+            case VERIFIED -> {
                 log.info("MFA token verified successfully for user: {}", SecurityUtils.maskEmail(email));
                 return true;
             }
-            
-            log.warn("Invalid MFA token for user: {}", SecurityUtils.maskEmail(email));
-            return false;
-            
-        } catch (Exception e) {
-            log.error("Error verifying MFA token for {}: {}", SecurityUtils.maskEmail(email), e.getMessage());
-            return false;
+            case LOCKED -> {
+                knownLockouts.put(email,
+                        System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(verification.retryAfterSeconds()));
+                throw lockedOut(verification.retryAfterSeconds());
+            }
+            default -> {
+                log.warn("Invalid MFA token for user: {}", SecurityUtils.maskEmail(email));
+                return false;
+            }
         }
     }
 
@@ -85,28 +233,29 @@ public class MfaService {
      * Check if MFA token exists for user
      */
     public boolean hasPendingMfaToken(String email) {
-        String key = MFA_TOKEN_PREFIX + email;
-        return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+        return oneTimeCodeStore.hasPending(Purpose.MFA, email);
     }
 
     /**
      * Get remaining MFA token TTL in seconds
      */
     public long getMfaTokenTtl(String email) {
-        String key = MFA_TOKEN_PREFIX + email;
-        Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
-        return ttl != null ? ttl : 0;
+        return oneTimeCodeStore.getTtlSeconds(Purpose.MFA, email);
     }
 
     /**
      * Clear MFA token for user
      */
     public void clearMfaToken(String email) {
-        String key = MFA_TOKEN_PREFIX + email;
-        redisTemplate.delete(key);
+        oneTimeCodeStore.revoke(Purpose.MFA, email);
         log.debug("MFA token cleared for user: {}", SecurityUtils.maskEmail(email));
     }
 
+    private static RateLimitException lockedOut(long retryAfterSeconds) {
+        return new RateLimitException("Too many invalid verification codes. Please try again later.",
+                Map.of("retryAfter", Math.max(1, retryAfterSeconds), "limit", "mfa"));
+    }
+
     /**
      * Send MFA token via email
      */
@@ -136,4 +285,10 @@ public class MfaService {
             throw new RuntimeException("Failed to send MFA token email", e);
         }
     }
+
+    /**
+     * New TOTP secret (Base32) and provisioning URI, shown to the user once
+     */
+    public record TotpEnrollment(String secret, String otpAuthUri) {
+    }
 }
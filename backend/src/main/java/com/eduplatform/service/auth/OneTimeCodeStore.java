@@ -0,0 +1,256 @@
+package com.eduplatform.service.auth;
+
+import com.eduplatform.util.SecurityUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-Time Code Store
+ * Short-lived numeric codes (MFA, email verification, password reset) kept in Redis as HMAC-SHA256
+ * digests keyed with a server-side secret (app.mfa.code-hash-key, Base64) and bound to the purpose and
+ * subject, so a leaked Redis dump cannot be brute-forced over the small code space offline. Without a
+ * configured key one is derived from the JWT secret, which is only fit for development.
+ * Verification, consumption and failed-attempt accounting happen in one Lua script, so a code can
+ * be used exactly once even under concurrent verifications, and a subject is locked out after
+ * MAX_FAILED_ATTEMPTS wrong guesses.
+ */
+@Slf4j
+@Service
+public class OneTimeCodeStore {
+
+    private static final String KEY_PREFIX = "otc:";
+    private static final String METRIC_PREFIX = "auth.one_time_code";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final int MAX_FAILED_ATTEMPTS = 5;
+    private static final Duration LOCKOUT_DURATION = Duration.ofMinutes(15);
+
+    /**
+     * KEYS[1] = code hash, KEYS[2] = lock flag, KEYS[3] = attempts counter
+     * ARGV[1] = code hash, ARGV[2] = ttl (ms)
+     * Returns 1 when stored, -2 with the lock ttl when the subject is locked out
+     */
+    private static final RedisScript<List> ISSUE_SCRIPT = new DefaultRedisScript<>("""
+            local lockTtl = redis.call('PTTL', KEYS[2])
+            if lockTtl > 0 then
+                return {-2, lockTtl}
+            end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            return {1, 0}
+            """, List.class);
+
+    /**
+     * KEYS[1] = code hash, KEYS[2] = lock flag, KEYS[3] = attempts counter
+     * ARGV[1] = submitted code hash, ARGV[2] = max attempts, ARGV[3] = lockout (ms),
+     * ARGV[4] = '1' to count a failure even when no code is pending
+     * Returns {status, lock ttl ms}: 1 verified, 0 invalid, -1 no pending code, -2 locked out
+     */
+    private static final RedisScript<List> VERIFY_SCRIPT = new DefaultRedisScript<>("""
+            local lockTtl = redis.call('PTTL', KEYS[2])
+            if lockTtl > 0 then
+                return {-2, lockTtl}
+            end
+            local stored = redis.call('GET', KEYS[1])
+            if stored and stored == ARGV[1] then
+                redis.call('DEL', KEYS[1], KEYS[3])
+                return {1, 0}
+            end
+            if not stored and ARGV[4] ~= '1' then
+                return {-1, 0}
+            end
+            local attempts = redis.call('INCR', KEYS[3])
+            if attempts == 1 then
+                redis.call('PEXPIRE', KEYS[3], ARGV[3])
+            end
+            if attempts >= tonumber(ARGV[2]) then
+                redis.call('DEL', KEYS[1], KEYS[3])
+                redis.call('SET', KEYS[2], '1', 'PX', ARGV[3])
+                return {-2, tonumber(ARGV[3])}
+            end
+            if stored then
+                return {0, 0}
+            end
+            return {-1, 0}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final SecretKeySpec hashKey;
+
+    public OneTimeCodeStore(StringRedisTemplate redisTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.mfa.code-hash-key:}") String codeHashKey,
+                            @Value("${app.jwt.secret}") String jwtSecret) throws GeneralSecurityException {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        byte[] keyBytes;
+        if (StringUtils.hasText(codeHashKey)) {
+            keyBytes = Base64.getDecoder().decode(codeHashKey);
+            if (keyBytes.length < 32) {
+                throw new IllegalStateException("app.mfa.code-hash-key must be at least 32 bytes (Base64)");
+            }
+        } else {
+            log.warn("app.mfa.code-hash-key is not set; deriving the one-time code key from the JWT secret");
+            keyBytes = MessageDigest.getInstance("SHA-256")
+                    .digest(("one-time-code:" + jwtSecret).getBytes(StandardCharsets.UTF_8));
+        }
+        this.hashKey = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+    }
+
+    /**
+     * Store a code for the subject, replacing any pending one.
+     * Returns false while the subject is locked out.
+     */
+    public boolean issue(Purpose purpose, String subject, String code, Duration ttl) {
+        List<?> result = redisTemplate.execute(ISSUE_SCRIPT, keys(purpose, subject),
+                hash(purpose, subject, code), String.valueOf(ttl.toMillis()));
+        boolean issued = result != null && toLong(result.get(0)) == 1L;
+        Counter.builder(METRIC_PREFIX + ".issued")
+                .tag("purpose", purpose.tag())
+                .tag("result", issued ? "issued" : "locked")
+                .register(meterRegistry)
+                .increment();
+        return issued;
+    }
+
+    /**
+     * Verify and consume a code in a single round trip.
+     * With countMissing, a guess is counted against the attempt limit even when no code is pending
+     * (used when another factor, such as TOTP, was also tried).
+     */
+    public Verification verify(Purpose purpose, String subject, String code, boolean countMissing) {
+        long start = System.nanoTime();
+        List<?> result = redisTemplate.execute(VERIFY_SCRIPT, keys(purpose, subject),
+                hash(purpose, subject, code),
+                String.valueOf(MAX_FAILED_ATTEMPTS),
+                String.valueOf(LOCKOUT_DURATION.toMillis()),
+                countMissing ? "1" : "0");
+
+        Verification verification = toVerification(result);
+        Timer.builder(METRIC_PREFIX + ".verify.duration")
+                .description("Latency of one-time code verification")
+                .tag("purpose", purpose.tag())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Counter.builder(METRIC_PREFIX + ".attempts")
+                .description("One-time code verification attempts by outcome")
+                .tag("purpose", purpose.tag())
+                .tag("result", verification.status().name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .increment();
+
+        if (verification.status() == Status.LOCKED) {
+            log.warn("One-time code verification locked for {} {}", purpose.tag(), SecurityUtils.maskEmail(subject));
+        }
+        return verification;
+    }
+
+    /**
+     * Whether a code is pending for the subject
+     */
+    public boolean hasPending(Purpose purpose, String subject) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(codeKey(purpose, subject)));
+    }
+
+    /**
+     * Remaining lifetime of the pending code in seconds (0 if none)
+     */
+    public long getTtlSeconds(Purpose purpose, String subject) {
+        Long ttl = redisTemplate.getExpire(codeKey(purpose, subject), TimeUnit.SECONDS);
+        return ttl != null && ttl > 0 ? ttl : 0;
+    }
+
+    /**
+     * Drop the pending code (attempt counter and lockout are kept)
+     */
+    public void revoke(Purpose purpose, String subject) {
+        redisTemplate.delete(codeKey(purpose, subject));
+    }
+
+    private static List<String> keys(Purpose purpose, String subject) {
+        String base = codeKey(purpose, subject);
+        return List.of(base, base + ":lock", base + ":attempts");
+    }
+
+    private static String codeKey(Purpose purpose, String subject) {
+        return KEY_PREFIX + purpose.tag() + ":" + subject.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private String hash(Purpose purpose, String subject, String code) {
+        try {
+            // Purpose and subject salt the digest: equal codes never share a stored value
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hashKey);
+            String message = purpose.tag() + '\0' + subject.trim().toLowerCase(Locale.ROOT) + '\0' + code;
+            return HexFormat.of().formatHex(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+    }
+
+    private static Verification toVerification(List<?> result) {
+        if (result == null || result.isEmpty()) {
+            return new Verification(Status.NOT_FOUND, 0);
+        }
+        long retryAfterSeconds = Math.max(0, TimeUnit.MILLISECONDS.toSeconds(toLong(result.get(1)) + 999));
+        Status status = switch ((int) toLong(result.get(0))) {
+            case 1 -> Status.VERIFIED;
+            case 0 -> Status.INVALID;
+            case -2 -> Status.LOCKED;
+            default -> Status.NOT_FOUND;
+        };
+        return new Verification(status, retryAfterSeconds);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+
+    public enum Purpose {
+        MFA,
+        EMAIL_VERIFICATION,
+        PASSWORD_RESET;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public enum Status {
+        VERIFIED,
+        INVALID,
+        NOT_FOUND,
+        LOCKED
+    }
+
+    /**
+     * Outcome of a verification; retryAfterSeconds is set when locked out
+     */
+    public record Verification(Status status, long retryAfterSeconds) {
+
+        public boolean isVerified() {
+            return status == Status.VERIFIED;
+        }
+    }
+}
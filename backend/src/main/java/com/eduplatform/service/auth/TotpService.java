@@ -0,0 +1,151 @@
+package com.eduplatform.service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * TOTP Service
+ * RFC 6238 time-based one-time passwords (HMAC-SHA1, 30 second step, 6 digits), verified locally
+ * with a +/-1 step window. Accepted (user, step) pairs are remembered until they fall out of the
+ * window so the same code cannot be replayed on this node.
+ */
+@Slf4j
+@Service
+public class TotpService {
+
+    private static final String BASE32_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
+    private static final String HMAC_ALGORITHM = "HmacSHA1";
+    private static final long STEP_SECONDS = 30;
+    private static final int DIGITS = 6;
+    private static final int WINDOW = 1;
+    private static final int SECRET_BYTES = 20;
+
+    private final String issuer;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Cache<String, Boolean> usedSteps = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(STEP_SECONDS * (2 * WINDOW + 2)))
+            .maximumSize(100_000)
+            .build();
+
+    public TotpService(@Value("${app.mfa.totp-issuer:EduPlatform}") String issuer) {
+        this.issuer = issuer;
+    }
+
+    /**
+     * Generate a new random Base32 secret (160 bits)
+     */
+    public String generateSecret() {
+        byte[] bytes = new byte[SECRET_BYTES];
+        secureRandom.nextBytes(bytes);
+        return base32Encode(bytes);
+    }
+
+    /**
+     * otpauth:// URI for authenticator app enrollment (usually rendered as a QR code)
+     */
+    public String buildOtpAuthUri(String accountName, String base32Secret) {
+        String label = URLEncoder.encode(issuer + ":" + accountName, StandardCharsets.UTF_8).replace("+", "%20");
+        return String.format("otpauth://totp/%s?secret=%s&issuer=%s&algorithm=SHA1&digits=%d&period=%d",
+                label, base32Secret, URLEncoder.encode(issuer, StandardCharsets.UTF_8).replace("+", "%20"),
+                DIGITS, STEP_SECONDS);
+    }
+
+    /**
+     * Verify a code against the secret within the +/-1 step window and consume its step
+     */
+    public boolean verify(UUID userId, String base32Secret, String code) {
+        if (code == null || code.length() != DIGITS) {
+            return false;
+        }
+        byte[] key = base32Decode(base32Secret);
+        byte[] submitted = code.getBytes(StandardCharsets.US_ASCII);
+        long currentStep = System.currentTimeMillis() / 1000 / STEP_SECONDS;
+
+        // Every candidate is computed and compared so timing does not reveal which step matched
+        long matchedStep = -1;
+        for (long step = currentStep - WINDOW; step <= currentStep + WINDOW; step++) {
+            byte[] expected = generateCode(key, step).getBytes(StandardCharsets.US_ASCII);
+            if (MessageDigest.isEqual(expected, submitted) && matchedStep < 0) {
+                matchedStep = step;
+            }
+        }
+        if (matchedStep < 0) {
+            return false;
+        }
+
+        if (usedSteps.asMap().putIfAbsent(userId + ":" + matchedStep, Boolean.TRUE) != null) {
+            log.warn("Rejected replayed TOTP code for user: {}", userId);
+            return false;
+        }
+        return true;
+    }
+
+    private static String generateCode(byte[] key, long step) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+            byte[] hash = mac.doFinal(ByteBuffer.allocate(Long.BYTES).putLong(step).array());
+            int offset = hash[hash.length - 1] & 0x0f;
+            int binary = ((hash[offset] & 0x7f) << 24)
+                    | ((hash[offset + 1] & 0xff) << 16)
+                    | ((hash[offset + 2] & 0xff) << 8)
+                    | (hash[offset + 3] & 0xff);
+            return String.format("%0" + DIGITS + "d", binary % 1_000_000);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("TOTP computation failed", e);
+        }
+    }
+
+    private static String base32Encode(byte[] data) {
+        StringBuilder result = new StringBuilder((data.length * 8 + 4) / 5);
+        int buffer = 0;
+        int bitsLeft = 0;
+        for (byte b : data) {
+            buffer = (buffer << 8) | (b & 0xff);
+            bitsLeft += 8;
+            while (bitsLeft >= 5) {
+                result.append(BASE32_ALPHABET.charAt((buffer >> (bitsLeft - 5)) & 0x1f));
+                bitsLeft -= 5;
+            }
+        }
+        if (bitsLeft > 0) {
+            result.append(BASE32_ALPHABET.charAt((buffer << (5 - bitsLeft)) & 0x1f));
+        }
+        return result.toString();
+    }
+
+    private static byte[] base32Decode(String encoded) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int buffer = 0;
+        int bitsLeft = 0;
+        for (char c : encoded.toUpperCase(Locale.ROOT).replace("=", "").replace(" ", "").toCharArray()) {
+            int value = BASE32_ALPHABET.indexOf(c);
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid Base32 character in TOTP secret");
+            }
+            buffer = (buffer << 5) | value;
+            bitsLeft += 5;
+            if (bitsLeft >= 8) {
+                out.write((buffer >> (bitsLeft - 8)) & 0xff);
+                bitsLeft -= 8;
+            }
+        }
+        return out.toByteArray();
+    }
+}
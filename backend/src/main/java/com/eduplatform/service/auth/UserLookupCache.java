@@ -0,0 +1,156 @@
+package com.eduplatform.service.auth;
+
+import com.eduplatform.model.User;
+import com.eduplatform.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * User Lookup Cache
+ * Per-node near cache of email -> (user id, security version, detached user snapshot) so that
+ * the per-request JWT principal load and profile reads do not query the users table each time.
+ * Entries are evicted on any user update (see UserCacheInvalidationListener) and on the bulk
+ * updates that bypass it (password rehash, lockout); every eviction is broadcast on a pub/sub
+ * channel once its transaction completes, so a password change, suspension or lock made on one
+ * node drops the entry on all of them. The short TTL only bounds staleness when a broadcast is
+ * lost. Snapshots are detached copies: callers that modify a user must load it through the
+ * repository.
+ */
+@Slf4j
+@Component
+public class UserLookupCache {
+
+    private static final ChannelTopic EVICTIONS = new ChannelTopic("user-cache:evict");
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, CachedUser> cache;
+
+    public UserLookupCache(UserRepository userRepository,
+                           StringRedisTemplate redisTemplate,
+                           RedisMessageListenerContainer listenerContainer,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.auth.user-cache.ttl:10s}") Duration ttl,
+                           @Value("${app.auth.user-cache.maximum-size:10000}") long maximumSize) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user.lookup");
+        listenerContainer.addMessageListener(this::onEviction, EVICTIONS);
+    }
+
+    /**
+     * Find a user by email (case-insensitive); returns a detached copy
+     */
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        CachedUser cached = cache.get(normalize(email), key -> userRepository.findByEmailIgnoreCase(key)
+                .map(CachedUser::of)
+                .orElse(null));
+        return Optional.ofNullable(cached).map(entry -> copyOf(entry.snapshot()));
+    }
+
+    /**
+     * Evict an email now and again once the surrounding transaction completes (so a concurrent
+     * load cannot re-cache the pre-commit row), then tell the other nodes to do the same
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        String key = normalize(email);
+        cache.invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(key);
+                    broadcastEviction(key);
+                }
+            });
+        } else {
+            broadcastEviction(key);
+        }
+        log.debug("Evicted user lookup cache entry");
+    }
+
+    private void broadcastEviction(String key) {
+        try {
+            redisTemplate.convertAndSend(EVICTIONS.getTopic(), key);
+        } catch (DataAccessException e) {
+            log.warn("Could not broadcast user lookup cache eviction: {}", e.getMessage());
+        }
+    }
+
+    private void onEviction(Message message, byte[] pattern) {
+        cache.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Scalar fields only; relationships are never touched through the snapshot
+     */
+    private static User copyOf(User user) {
+        User copy = User.builder()
+                .email(user.getEmail())
+                .passwordHash(user.getPasswordHash())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .role(user.getRole())
+                .status(user.getStatus())
+                .phoneNumber(user.getPhoneNumber())
+                .profilePictureUrl(user.getProfilePictureUrl())
+                .bio(user.getBio())
+                .timezone(user.getTimezone())
+                .language(user.getLanguage())
+                .emailVerified(user.getEmailVerified())
+                .emailVerifiedAt(user.getEmailVerifiedAt())
+                .lastLoginAt(user.getLastLoginAt())
+                .failedLoginAttempts(user.getFailedLoginAttempts())
+                .accountLockedUntil(user.getAccountLockedUntil())
+                .deletedAt(user.getDeletedAt())
+                .mfaTotpSecret(user.getMfaTotpSecret())
+                .mfaTotpEnabled(user.getMfaTotpEnabled())
+                .mfaTotpEnabledAt(user.getMfaTotpEnabledAt())
+                .build();
+        copy.setId(user.getId());
+        copy.setVersion(user.getVersion());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setUpdatedAt(user.getUpdatedAt());
+        return copy;
+    }
+
+    private record CachedUser(UUID userId, Long securityVersion, User snapshot) {
+
+        static CachedUser of(User user) {
+            return new CachedUser(user.getId(), user.getVersion(), copyOf(user));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.eduplatform.service.enrollment;
+
+import com.eduplatform.model.enums.LearningEventType;
+import com.eduplatform.model.enums.OutboxEventType;
+import com.eduplatform.service.activity.ActivityFeed;
+import com.eduplatform.service.outbox.OutboxPayloads;
+import com.eduplatform.service.outbox.OutboxPublisher;
+import com.eduplatform.service.progress.CourseProgressRollups;
+import com.eduplatform.service.progress.LearningEventAppender;
+import com.eduplatform.service.progress.LessonProgressChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Cohort Enrollment Writer
+ * Set-based statements behind bulk enrollment: one query resolves the cohort's emails, one
+ * finds who is already enrolled, and each chunk is inserted by a single multi-row INSERT
+ * ... ON CONFLICT DO NOTHING in its own short transaction together with its outbox rows.
+ */
+@Component
+public class CohortEnrollmentWriter {
+
+    private static final String RESOLVE_SQL =
+            "SELECT id, email FROM users WHERE email = ANY(?) AND deleted_at IS NULL";
+
+    private static final String ENROLLED_SQL =
+            "SELECT student_id FROM enrollments WHERE course_id = ? AND student_id = ANY(?)";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO enrollments (id, student_id, course_id, status, enrolled_at, progress_percentage,
+                                     lessons_completed, created_at, updated_at, version)
+            SELECT gen_random_uuid(), s.student_id, ?, 'ACTIVE', now(), 0, 0, now(), now(), 0
+            FROM unnest(?::uuid[]) AS s(student_id)
+            ON CONFLICT (student_id, course_id) DO NOTHING
+            RETURNING student_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CourseSeatLedger seatLedger;
+    private final OutboxPublisher outboxPublisher;
+    private final CourseProgressRollups progressRollups;
+    private final LearningEventAppender learningEvents;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EnrollmentMembershipIndex membershipIndex;
+    private final ActivityFeed activityFeed;
+
+    public CohortEnrollmentWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  CourseSeatLedger seatLedger, OutboxPublisher outboxPublisher,
+                                  CourseProgressRollups progressRollups, LearningEventAppender learningEvents,
+                                  ApplicationEventPublisher eventPublisher, EnrollmentMembershipIndex membershipIndex,
+                                  ActivityFeed activityFeed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.seatLedger = seatLedger;
+        this.outboxPublisher = outboxPublisher;
+        this.progressRollups = progressRollups;
+        this.learningEvents = learningEvents;
+        this.eventPublisher = eventPublisher;
+        this.membershipIndex = membershipIndex;
+        this.activityFeed = activityFeed;
+    }
+
+    /**
+     * Email (lower case) -> user id for the accounts that exist
+     */
+    public Map<String, UUID> resolveStudents(Collection<String> emails) {
+        Map<String, UUID> students = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(RESOLVE_SQL);
+            ps.setArray(1, con.createArrayOf("varchar", emails.toArray()));
+            return ps;
+        }, rs -> {
+            students.put(rs.getString(2), rs.getObject(1, UUID.class));
+        });
+        return students;
+    }
+
+    public Set<UUID> findEnrolled(UUID courseId, Collection<UUID> studentIds) {
+        Set<UUID> enrolled = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ENROLLED_SQL);
+            ps.setObject(1, courseId);
+            ps.setArray(2, con.createArrayOf("uuid", studentIds.toArray()));
+            return ps;
+        }, rs -> {
+            enrolled.add(rs.getObject(1, UUID.class));
+        });
+        return enrolled;
+    }
+
+    /**
+     * Take seats for the whole cohort in one statement (committed on its own)
+     */
+    public boolean reserveSeats(UUID courseId, int seats) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> seatLedger.reserve(courseId, seats)));
+    }
+
+    public void releaseSeats(UUID courseId, int seats) {
+        transactionTemplate.executeWithoutResult(status -> seatLedger.release(courseId, seats));
+    }
+
+    /**
+     * Insert one chunk of pre-reserved students; seats of students enrolled concurrently in the
+     * meantime are given back. Returns the students actually enrolled.
+     */
+    public Set<UUID> writeChunk(UUID courseId, List<UUID> studentIds) {
+        return transactionTemplate.execute(status -> {
+            Set<UUID> inserted = new HashSet<>(jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_SQL);
+                ps.setObject(1, courseId);
+                ps.setArray(2, con.createArrayOf("uuid", studentIds.toArray()));
+                return ps;
+            }, (rs, rowNum) -> rs.getObject(1, UUID.class)));
+
+            seatLedger.release(courseId, studentIds.size() - inserted.size());
+            if (inserted.isEmpty()) {
+                return inserted;
+            }
+            membershipIndex.added(courseId, inserted);
+            activityFeed.record(LearningEventType.ENROLLED, courseId, inserted);
+
+            // Confirmation emails are retried per student; notifications go out as one batch
+            outboxPublisher.publishAll(OutboxEventType.ENROLLMENT_CONFIRMATION_EMAIL, inserted.stream()
+                    .map(studentId -> new OutboxPayloads.CourseMember(studentId, courseId))
+                    .toList());
+            outboxPublisher.publish(OutboxEventType.ENROLLMENT_NOTIFICATIONS,
+                    new OutboxPayloads.CourseMembers(courseId, List.copyOf(inserted)));
+
+            progressRollups.studentsEnrolled(courseId, inserted.size());
+            for (UUID studentId : inserted) {
+                eventPublisher.publishEvent(new LessonProgressChangedEvent(studentId, courseId, null));
+                learningEvents.append(studentId, courseId, null, LearningEventType.ENROLLED, 0);
+            }
+            return inserted;
+        });
+    }
+}
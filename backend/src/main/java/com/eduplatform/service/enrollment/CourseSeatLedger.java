@@ -0,0 +1,132 @@
+package com.eduplatform.service.enrollment;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Course Seat Ledger
+ * Admits or rejects enrollments in O(1) with one conditional UPDATE on the course's
+ * course_seats row: seats are taken only while seats_taken + n stays within max_students.
+ * The row lock is held until the enrolling transaction ends, so concurrent enrollments of one
+ * course queue on that row instead of all passing a stale COUNT, and a rollback gives the
+ * seats back. A scheduled consistency check recounts drifted counters from enrollments.
+ */
+@Slf4j
+@Component
+public class CourseSeatLedger {
+
+    private static final String RESERVE_SQL = """
+            UPDATE course_seats s
+            SET seats_taken = s.seats_taken + ?,
+                updated_at = now()
+            FROM courses c
+            WHERE s.course_id = ? AND c.id = s.course_id
+              AND (c.max_students IS NULL OR s.seats_taken + ? <= c.max_students)
+            """;
+
+    private static final String RELEASE_SQL = """
+            UPDATE course_seats
+            SET seats_taken = GREATEST(seats_taken - ?, 0),
+                updated_at = now()
+            WHERE course_id = ?
+            """;
+
+    // Courses created after the migration get their counter on first use
+    private static final String CREATE_SQL = """
+            INSERT INTO course_seats (course_id, seats_taken)
+            SELECT c.id, 0 FROM courses c WHERE c.id = ?
+            ON CONFLICT (course_id) DO NOTHING
+            """;
+
+    private static final String DRIFT_SQL = """
+            SELECT c.id
+            FROM courses c
+            LEFT JOIN course_seats s ON s.course_id = c.id
+            LEFT JOIN enrollments e ON e.course_id = c.id
+            GROUP BY c.id, s.seats_taken
+            HAVING s.seats_taken IS DISTINCT FROM COUNT(e.id) FILTER (WHERE e.status <> 'DROPPED')
+            """;
+
+    private static final String RECOUNT_SQL = """
+            UPDATE course_seats
+            SET seats_taken = (SELECT COUNT(*) FROM enrollments e
+                               WHERE e.course_id = course_seats.course_id AND e.status <> 'DROPPED'),
+                updated_at = now()
+            WHERE course_id = ?
+            RETURNING seats_taken
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public CourseSeatLedger(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Take n seats in the current transaction; false if the course does not have that many left
+     */
+    public boolean reserve(UUID courseId, int seats) {
+        if (seats <= 0) {
+            return true;
+        }
+        int updated = jdbcTemplate.update(RESERVE_SQL, seats, courseId, seats);
+        if (updated == 0 && jdbcTemplate.update(CREATE_SQL, courseId) == 1) {
+            updated = jdbcTemplate.update(RESERVE_SQL, seats, courseId, seats);
+        }
+        return updated == 1;
+    }
+
+    /**
+     * Give back n seats (drop or unenroll)
+     */
+    public void release(UUID courseId, int seats) {
+        if (seats > 0) {
+            jdbcTemplate.update(RELEASE_SQL, seats, courseId);
+        }
+    }
+
+    public int getSeatsTaken(UUID courseId) {
+        List<Integer> taken = jdbcTemplate.queryForList(
+                "SELECT seats_taken FROM course_seats WHERE course_id = ?", Integer.class, courseId);
+        return taken.isEmpty() ? 0 : taken.get(0);
+    }
+
+    /**
+     * Consistency check: recount the seats of every course whose counter disagrees with its
+     * enrollments; returns the number of counters corrected
+     */
+    public int reconcile() {
+        int corrected = 0;
+        for (UUID courseId : jdbcTemplate.queryForList(DRIFT_SQL, UUID.class)) {
+            Integer seats = transactionTemplate.execute(status -> recount(courseId));
+            log.warn("Seat counter of course {} was out of sync, now {}", courseId, seats);
+            corrected++;
+        }
+        return corrected;
+    }
+
+    @Scheduled(cron = "${app.enrollment.seats.reconcile-cron:0 40 3 * * *}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Lock the counter first so enrollments still holding it finish, then count in a new snapshot
+     */
+    private Integer recount(UUID courseId) {
+        jdbcTemplate.update(CREATE_SQL, courseId);
+        jdbcTemplate.queryForList("SELECT seats_taken FROM course_seats WHERE course_id = ? FOR UPDATE",
+                Integer.class, courseId);
+        List<Integer> seats = jdbcTemplate.queryForList(RECOUNT_SQL, Integer.class, courseId);
+        return seats.isEmpty() ? null : seats.get(0);
+    }
+}
@@ -0,0 +1,389 @@
+package com.eduplatform.service.enrollment;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Enrollment Membership Index
+ * Answers "is student X enrolled in course Y?" from the two ids, without loading entities. Each
+ * course's current (non-dropped) students live in a Redis set shared by all nodes; in front of
+ * it every node keeps a Bloom filter of all pairs, so most negatives are answered locally. A
+ * Redis miss is confirmed with one indexed query, which also repairs the set if Redis lost it.
+ * New pairs go into every node's filter before the enrolling transaction commits (a rollback
+ * only leaves a harmless false positive), so a filter negative can be trusted; the Redis sets
+ * and drops are applied after commit and broadcast on a pub/sub channel. Filters are rebuilt on startup and daily; the Redis sets are rebuilt by
+ * whichever node takes the rebuild lock, replaying changes made while it ran.
+ */
+@Slf4j
+@Component
+public class EnrollmentMembershipIndex {
+
+    private static final String KEY_PREFIX = "enrollment:members:";
+    private static final String REBUILD_LOCK_KEY = "enrollment:members-rebuild-lock";
+    private static final Duration REBUILD_LOCK_TTL = Duration.ofMinutes(30);
+    private static final ChannelTopic CHANNEL = new ChannelTopic("enrollment:membership");
+    private static final int FETCH_SIZE = 5000;
+    private static final int SADD_BATCH = 1000;
+
+    private static final String MEMBERS_SQL = """
+            SELECT course_id, student_id FROM enrollments
+            WHERE status <> 'DROPPED'
+            ORDER BY course_id
+            """;
+
+    private static final String EXISTS_SQL = """
+            SELECT EXISTS (SELECT 1 FROM enrollments
+                           WHERE student_id = ? AND course_id = ? AND status <> 'DROPPED')
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final StringRedisTemplate redisTemplate;
+
+    private volatile MembershipBloomFilter filter;
+    private final Object filterLock = new Object();
+    private List<Change> filterBacklog;   // guarded by filterLock, non-null while the filter is rebuilt
+    private List<Change> redisBacklog;    // guarded by filterLock, non-null while the Redis sets are rebuilt
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public EnrollmentMembershipIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     StringRedisTemplate redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.redisTemplate = redisTemplate;
+        listenerContainer.addMessageListener(this::onMessage, CHANNEL);
+    }
+
+    public boolean isMember(UUID studentId, UUID courseId) {
+        MembershipBloomFilter current = filter;
+        if (current != null && !current.mightContain(courseId, studentId)) {
+            return false;
+        }
+        boolean redisAvailable = true;
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(key(courseId), studentId.toString()))) {
+                return true;
+            }
+        } catch (DataAccessException e) {
+            redisAvailable = false;
+            log.debug("Membership lookup in Redis failed, using the database: {}", e.getMessage());
+        }
+
+        boolean member = Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_SQL, Boolean.class, studentId, courseId));
+        if (member && redisAvailable) {
+            // The set lost this member (Redis restart or a missed change); put it back
+            writeRedis(new Change(Change.ADDED, courseId, studentId));
+        }
+        return member;
+    }
+
+    /**
+     * Record enrollments: the filters learn the pairs now, before the write commits, so no node
+     * answers a negative for them once they are visible; Redis is updated after commit
+     */
+    public void added(UUID courseId, Collection<UUID> studentIds) {
+        List<Change> changes = studentIds.stream().map(studentId -> new Change(Change.HINT, courseId, studentId)).toList();
+        changes.forEach(this::publish);
+        afterCommit(() -> changes.forEach(change -> publish(change.committed())));
+    }
+
+    public void added(UUID courseId, UUID studentId) {
+        added(courseId, List.of(studentId));
+    }
+
+    /**
+     * Record a drop; applied once the current transaction commits
+     */
+    public void removed(UUID courseId, UUID studentId) {
+        Change change = new Change(Change.REMOVED, courseId, studentId);
+        afterCommit(() -> publish(change));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${app.enrollment.membership.rebuild-cron:0 20 4 * * *}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Enrollment membership rebuild already running");
+            return;
+        }
+        try {
+            rebuildIndex();
+        } catch (RuntimeException e) {
+            // Lookups fall through to Redis and the database until the next rebuild succeeds
+            log.error("Enrollment membership rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void rebuildIndex() {
+        long started = System.currentTimeMillis();
+        Long pairs = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM enrollments WHERE status <> 'DROPPED'", Long.class);
+        boolean rebuildRedis = tryLockRedisRebuild();
+        MembershipBloomFilter rebuilt = new MembershipBloomFilter(Math.max(pairs != null ? pairs : 0, 1) * 2);
+        synchronized (filterLock) {
+            filterBacklog = new ArrayList<>();
+            redisBacklog = rebuildRedis ? new ArrayList<>() : null;
+        }
+
+        Set<UUID> courses = new HashSet<>();
+        try {
+            // Streamed from a cursor: one course's members are held at a time
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(MEMBERS_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(FETCH_SIZE);
+                return ps;
+            }, rs -> {
+                UUID course = null;
+                List<String> members = new ArrayList<>();
+                while (rs.next()) {
+                    UUID courseId = rs.getObject(1, UUID.class);
+                    UUID studentId = rs.getObject(2, UUID.class);
+                    rebuilt.add(courseId, studentId);
+                    if (rebuildRedis) {
+                        if (course != null && !course.equals(courseId)) {
+                            replaceMembers(course, members);
+                            members.clear();
+                        }
+                        course = courseId;
+                        courses.add(courseId);
+                        members.add(studentId.toString());
+                    }
+                }
+                if (course != null) {
+                    replaceMembers(course, members);
+                }
+                return null;
+            }));
+            if (rebuildRedis) {
+                removeStaleCourses(courses);
+            }
+        } catch (RuntimeException e) {
+            synchronized (filterLock) {
+                filterBacklog = null;
+                redisBacklog = null;
+            }
+            if (rebuildRedis) {
+                redisTemplate.delete(REBUILD_LOCK_KEY);
+            }
+            throw e;
+        }
+
+        List<Change> redisReplay;
+        synchronized (filterLock) {
+            filterBacklog.forEach(change -> rebuilt.add(change.courseId(), change.studentId()));
+            filter = rebuilt;
+            filterBacklog = null;
+            redisReplay = redisBacklog;
+            redisBacklog = null;
+        }
+        if (redisReplay != null) {
+            // Changes committed while the sets were rewritten, in the order they were broadcast
+            redisReplay.forEach(this::writeRedis);
+            redisTemplate.delete(REBUILD_LOCK_KEY);
+        }
+        log.info("Rebuilt enrollment membership index ({} pair(s), Redis sets {}) in {} ms",
+                pairs, rebuildRedis ? "rebuilt" : "left to another node", System.currentTimeMillis() - started);
+    }
+
+    private void onMessage(Message message, byte[] pattern) {
+        Change change = Change.parse(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (change == null) {
+            return;
+        }
+        synchronized (filterLock) {
+            if (change.added() && filter != null) {
+                filter.add(change.courseId(), change.studentId());
+            }
+            if (change.added() && filterBacklog != null) {
+                filterBacklog.add(change);
+            }
+            if (redisBacklog != null && !change.hint()) {
+                redisBacklog.add(change);
+            }
+        }
+    }
+
+    private void publish(Change change) {
+        apply(change);
+        try {
+            redisTemplate.convertAndSend(CHANNEL.getTopic(), change.format());
+        } catch (DataAccessException e) {
+            log.warn("Could not broadcast enrollment membership change: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Local filter first, so this node sees its own change even if Redis is unavailable
+     */
+    private void apply(Change change) {
+        if (change.added()) {
+            synchronized (filterLock) {
+                MembershipBloomFilter current = filter;
+                if (current != null) {
+                    current.add(change.courseId(), change.studentId());
+                }
+                if (filterBacklog != null) {
+                    filterBacklog.add(change);
+                }
+            }
+        }
+        if (!change.hint()) {
+            writeRedis(change);
+        }
+    }
+
+    private void writeRedis(Change change) {
+        try {
+            if (change.added()) {
+                redisTemplate.opsForSet().add(key(change.courseId()), change.studentId().toString());
+            } else {
+                redisTemplate.opsForSet().remove(key(change.courseId()), change.studentId().toString());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not update enrollment membership of course {} in Redis: {}",
+                    change.courseId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Write the full member list under a scratch key and swap it in, so readers never see a partial set
+     */
+    private void replaceMembers(UUID courseId, List<String> members) {
+        String scratch = key(courseId) + ":rebuild";
+        redisTemplate.delete(scratch);
+        for (int from = 0; from < members.size(); from += SADD_BATCH) {
+            redisTemplate.opsForSet().add(scratch,
+                    members.subList(from, Math.min(from + SADD_BATCH, members.size())).toArray(String[]::new));
+        }
+        redisTemplate.rename(scratch, key(courseId));
+    }
+
+    /**
+     * Courses that no longer have members keep no set; found with SCAN rather than KEYS
+     */
+    private void removeStaleCourses(Set<UUID> courses) {
+        List<String> stale = redisTemplate.execute((RedisCallback<List<String>>) connection -> {
+            List<String> keys = new ArrayList<>();
+            ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(SADD_BATCH).build();
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext()) {
+                    String key = new String(cursor.next(), StandardCharsets.UTF_8);
+                    String courseId = key.substring(KEY_PREFIX.length());
+                    if (!courseId.endsWith(":rebuild") && !courses.contains(UUID.fromString(courseId))) {
+                        keys.add(key);
+                    }
+                }
+            }
+            return keys;
+        });
+        if (stale != null && !stale.isEmpty()) {
+            redisTemplate.delete(stale);
+        }
+    }
+
+    private boolean tryLockRedisRebuild() {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(REBUILD_LOCK_KEY, "1", REBUILD_LOCK_TTL));
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable, rebuilding the local membership filter only: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String key(UUID courseId) {
+        return KEY_PREFIX + courseId;
+    }
+
+    /**
+     * op is ADDED or REMOVED for committed changes, HINT for a pair enrolled by a transaction that
+     * has not committed yet (filters only)
+     */
+    private record Change(char op, UUID courseId, UUID studentId) {
+
+        static final char ADDED = '+';
+        static final char REMOVED = '-';
+        static final char HINT = '?';
+
+        boolean added() {
+            return op != REMOVED;
+        }
+
+        boolean hint() {
+            return op == HINT;
+        }
+
+        Change committed() {
+            return new Change(ADDED, courseId, studentId);
+        }
+
+        String format() {
+            return op + courseId.toString() + ":" + studentId;
+        }
+
+        static Change parse(String value) {
+            try {
+                int separator = value.indexOf(':');
+                char op = value.charAt(0);
+                if (op != ADDED && op != REMOVED && op != HINT) {
+                    return null;
+                }
+                return new Change(op,
+                        UUID.fromString(value.substring(1, separator)),
+                        UUID.fromString(value.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.eduplatform.service.enrollment;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over (course id, student id) pairs. Sized for a 1% false positive rate at the
+ * expected number of pairs; adds are lock-free, and a pair that was added is always reported
+ * as possibly present.
+ */
+final class MembershipBloomFilter {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    MembershipBloomFilter(long expectedPairs) {
+        long n = Math.max(expectedPairs, 1024);
+        long bits = (long) Math.ceil(-n * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.min((bits + 63) / 64, Integer.MAX_VALUE));
+        this.bitCount = (long) words.length() * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void add(UUID courseId, UUID studentId) {
+        long h1 = hash(courseId, studentId, 0x9E3779B97F4A7C15L);
+        long h2 = hash(courseId, studentId, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(UUID courseId, UUID studentId) {
+        long h1 = hash(courseId, studentId, 0x9E3779B97F4A7C15L);
+        long h2 = hash(courseId, studentId, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(UUID courseId, UUID studentId, long seed) {
+        long h = seed;
+        h = mix(h ^ courseId.getMostSignificantBits());
+        h = mix(h ^ courseId.getLeastSignificantBits());
+        h = mix(h ^ studentId.getMostSignificantBits());
+        return mix(h ^ studentId.getLeastSignificantBits());
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
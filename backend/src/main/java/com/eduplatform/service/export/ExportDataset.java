@@ -0,0 +1,61 @@
+package com.eduplatform.service.export;
+
+import com.eduplatform.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Tables that can be exported, with the columns each export exposes. Rows come out in primary
+ * key order; soft-deleted users, courses and lessons are left out as they are everywhere else.
+ */
+public enum ExportDataset {
+    ENROLLMENTS("""
+            SELECT id, student_id, course_id, status, enrolled_at, completed_at, progress_percentage,
+                   lessons_completed, last_accessed_at, certificate_issued, created_at, updated_at
+            FROM enrollments
+            ORDER BY id
+            """),
+    USERS("""
+            SELECT id, email, first_name, last_name, role, status, email_verified, timezone, language,
+                   last_login_at, created_at, updated_at
+            FROM users
+            WHERE deleted_at IS NULL
+            ORDER BY id
+            """),
+    COURSES("""
+            SELECT id, title, slug, level, status, price, discount_price, currency, duration_hours,
+                   max_students, language, instructor_id, category_id, published_at, created_at, updated_at
+            FROM courses
+            WHERE deleted_at IS NULL
+            ORDER BY id
+            """),
+    LESSONS("""
+            SELECT id, course_id, title, slug, type, sort_order, video_duration, estimated_duration,
+                   is_preview, is_mandatory, created_at, updated_at
+            FROM lessons
+            WHERE deleted_at IS NULL
+            ORDER BY id
+            """);
+
+    private final String sql;
+
+    ExportDataset(String sql) {
+        this.sql = sql;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getFileName(ExportFormat format) {
+        return name().toLowerCase(Locale.ROOT) + "." + format.getExtension();
+    }
+
+    public static ExportDataset fromValue(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown export: " + value);
+        }
+    }
+}
@@ -1,34 +1,57 @@
 package com.eduplatform.service.impl;
 
+import com.eduplatform.dto.request.BulkEnrollmentRequest;
+import com.eduplatform.dto.response.ActivityFeedDto;
+import com.eduplatform.dto.response.BulkEnrollmentResultDto;
 import com.eduplatform.dto.response.EnrollmentDto;
 import com.eduplatform.dto.response.EnrollmentStatsDto;
 import com.eduplatform.exception.BusinessLogicException;
 import com.eduplatform.exception.DuplicateResourceException;
+import com.eduplatform.exception.InvalidOperationException;
 import com.eduplatform.exception.ResourceNotFoundException;
 import com.eduplatform.mapper.EnrollmentMapper;
 import com.eduplatform.model.Course;
 import com.eduplatform.model.Enrollment;
 import com.eduplatform.model.User;
 import com.eduplatform.model.enums.EnrollmentStatus;
+import com.eduplatform.model.enums.LearningEventType;
+import com.eduplatform.model.enums.OutboxEventType;
+import com.eduplatform.model.enums.UserRole;
 import com.eduplatform.repository.CourseRepository;
 import com.eduplatform.repository.EnrollmentRepository;
 import com.eduplatform.repository.UserRepository;
-import com.eduplatform.service.EmailService;
 import com.eduplatform.service.EnrollmentService;
-import com.eduplatform.service.NotificationService;
+import com.eduplatform.service.activity.ActivityFeed;
+import com.eduplatform.service.enrollment.CohortEnrollmentWriter;
+import com.eduplatform.service.enrollment.CourseSeatLedger;
+import com.eduplatform.service.enrollment.EnrollmentMembershipIndex;
+import com.eduplatform.service.outbox.OutboxPayloads;
+import com.eduplatform.service.outbox.OutboxPublisher;
+import com.eduplatform.service.progress.CourseProgressRollups;
+import com.eduplatform.service.progress.CourseProgressRollups.EnrollmentState;
+import com.eduplatform.service.progress.LearningEventAppender;
+import com.eduplatform.service.progress.LessonProgressChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,12 +60,20 @@ import java.util.stream.Collectors;
 @Transactional
 public class EnrollmentServiceImpl implements EnrollmentService {
 
+    private static final int BULK_CHUNK_SIZE = 1000;
+
     private final EnrollmentRepository enrollmentRepository;
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final EnrollmentMapper enrollmentMapper;
-    private final EmailService emailService;
-    private final NotificationService notificationService;
+    private final OutboxPublisher outboxPublisher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CourseProgressRollups progressRollups;
+    private final LearningEventAppender learningEvents;
+    private final CourseSeatLedger seatLedger;
+    private final CohortEnrollmentWriter cohortWriter;
+    private final EnrollmentMembershipIndex membershipIndex;
+    private final ActivityFeed activityFeed;
 
     @Override
     public EnrollmentDto enrollStudent(UUID studentId, UUID courseId) {
@@ -59,12 +90,9 @@ public class EnrollmentServiceImpl implements EnrollmentService {
             throw new DuplicateResourceException("Student is already enrolled in this course");
         }
 
-        // Check course capacity
-        if (course.getMaxStudents() != null) {
-            long currentEnrollments = enrollmentRepository.countByCourseAndStatus(course, EnrollmentStatus.ACTIVE);
-            if (currentEnrollments >= course.getMaxStudents()) {
-                throw new BusinessLogicException("Course has reached maximum capacity");
-            }
+        // Take a seat atomically; it is released again if this transaction rolls back
+        if (!seatLedger.reserve(courseId, 1)) {
+            throw new BusinessLogicException("Course has reached maximum capacity");
         }
 
         Enrollment enrollment = Enrollment.builder()
@@ -75,20 +103,99 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                 .progressPercentage(BigDecimal.ZERO)
                 .build();
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        membershipIndex.added(courseId, studentId);
+        eventPublisher.publishEvent(new LessonProgressChangedEvent(studentId, courseId, null));
+        progressRollups.studentsEnrolled(courseId, 1);
+        learningEvents.append(studentId, courseId, null, LearningEventType.ENROLLED, 0);
+        activityFeed.record(LearningEventType.ENROLLED, courseId, studentId);
 
-        // Send notifications
-        emailService.sendEnrollmentConfirmation(student.getEmail(), student.getFirstName(), course.getTitle());
-        notificationService.sendEnrollmentNotification(studentId, courseId);
+        // Email and notification are delivered by the outbox dispatcher once this commits
+        OutboxPayloads.CourseMember member = new OutboxPayloads.CourseMember(studentId, courseId);
+        outboxPublisher.publish(OutboxEventType.ENROLLMENT_CONFIRMATION_EMAIL, member);
+        outboxPublisher.publish(OutboxEventType.ENROLLMENT_NOTIFICATION, member);
 
         log.info("Student {} enrolled successfully in course {}", studentId, courseId);
         return enrollmentMapper.toDto(savedEnrollment);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkEnrollmentResultDto bulkEnroll(UUID courseId, BulkEnrollmentRequest request, UUID instructorId,
+                                              Consumer<BulkEnrollmentResultDto.Progress> progress) {
+        Course course = findCourseById(courseId);
+        User instructor = findUserById(instructorId);
+        if (!course.getInstructor().getId().equals(instructorId) && instructor.getRole() != UserRole.ADMIN) {
+            throw new InvalidOperationException("User does not have permission to enroll students in this course");
+        }
+        if (!course.isPublished()) {
+            throw new BusinessLogicException("Cannot enroll in an unpublished course");
+        }
+
+        Set<String> emails = new LinkedHashSet<>();
+        request.getEmails().forEach(email -> emails.add(email.trim().toLowerCase(Locale.ROOT)));
+        log.info("Bulk enrolling {} email(s) in course {}", emails.size(), courseId);
+
+        // One query each to resolve the cohort and to find who is already in the course
+        Map<String, UUID> students = cohortWriter.resolveStudents(emails);
+        Set<UUID> alreadyEnrolled = students.isEmpty() ? Set.of() : cohortWriter.findEnrolled(courseId, students.values());
+        List<UUID> candidates = students.values().stream()
+                .filter(studentId -> !alreadyEnrolled.contains(studentId))
+                .distinct()
+                .toList();
+
+        // Seats for the whole cohort are taken in one step, so it is admitted entirely or not at all
+        if (!cohortWriter.reserveSeats(courseId, candidates.size())) {
+            throw new BusinessLogicException("Course does not have " + candidates.size() + " seats left");
+        }
+
+        Set<UUID> enrolled = new LinkedHashSet<>();
+        int written = 0;
+        try {
+            for (int from = 0; from < candidates.size(); from += BULK_CHUNK_SIZE) {
+                List<UUID> chunk = candidates.subList(from, Math.min(from + BULK_CHUNK_SIZE, candidates.size()));
+                enrolled.addAll(cohortWriter.writeChunk(courseId, chunk));
+                written += chunk.size();
+                progress.accept(BulkEnrollmentResultDto.Progress.builder()
+                        .processed(written)
+                        .total(candidates.size())
+                        .enrolled(enrolled.size())
+                        .build());
+            }
+        } finally {
+            // Chunks not written (failure or aborted stream) give their seats back
+            cohortWriter.releaseSeats(courseId, candidates.size() - written);
+        }
+
+        List<BulkEnrollmentResultDto.StudentResult> results = new ArrayList<>(emails.size());
+        for (String email : emails) {
+            UUID studentId = students.get(email);
+            BulkEnrollmentResultDto.Status status = studentId == null ? BulkEnrollmentResultDto.Status.NOT_FOUND
+                    : enrolled.contains(studentId) ? BulkEnrollmentResultDto.Status.ENROLLED
+                    : BulkEnrollmentResultDto.Status.ALREADY_ENROLLED;
+            results.add(BulkEnrollmentResultDto.StudentResult.builder()
+                    .email(email)
+                    .studentId(studentId)
+                    .status(status)
+                    .build());
+        }
+
+        log.info("Bulk enrollment in course {} finished: {} enrolled out of {} email(s)",
+                courseId, enrolled.size(), emails.size());
+        return BulkEnrollmentResultDto.builder()
+                .courseId(courseId)
+                .requested(emails.size())
+                .enrolled(enrolled.size())
+                .alreadyEnrolled(students.size() - enrolled.size())
+                .notFound(emails.size() - students.size())
+                .results(results)
+                .build();
+    }
+
     @Override
     public void unenrollStudent(UUID studentId, UUID courseId) {
         log.info("Unenrolling student: {} from course: {}", studentId, courseId);
         Enrollment enrollment = findEnrollmentEntity(studentId, courseId);
-        enrollment.setStatus(EnrollmentStatus.DROPPED);
+        changeStatus(enrollment, EnrollmentStatus.DROPPED);
         enrollmentRepository.save(enrollment);
         log.info("Student {} unenrolled successfully from course {}", studentId, courseId);
     }
@@ -101,7 +208,7 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Enrollment", "id", enrollmentId));
         
-        enrollment.setStatus(status);
+        changeStatus(enrollment, status);
         if (status == EnrollmentStatus.COMPLETED) {
             enrollment.setCompletedAt(LocalDateTime.now());
         }
@@ -165,6 +272,29 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                 .build();
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public ActivityFeedDto getCourseActivity(UUID courseId, UUID userId, Long before, int size) {
+        Course course = findCourseById(courseId);
+        User user = findUserById(userId);
+        if (!course.getInstructor().getId().equals(userId) && user.getRole() != UserRole.ADMIN) {
+            throw new InvalidOperationException("User does not have permission to view this course's activity");
+        }
+        return toActivityFeedDto(activityFeed.getCourseFeed(courseId, before, size));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ActivityFeedDto getInstructorActivity(UUID instructorId, Long before, int size) {
+        return toActivityFeedDto(activityFeed.getInstructorFeed(instructorId, before, size));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int reconcileSeats() {
+        return seatLedger.reconcile();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<EnrollmentDto> findAll() {
@@ -190,11 +320,9 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean isStudentEnrolled(UUID studentId, UUID courseId) {
-        User student = findUserById(studentId);
-        Course course = findCourseById(courseId);
-        return enrollmentRepository.existsByStudentAndCourse(student, course);
+        return membershipIndex.isMember(studentId, courseId);
     }
 
     @Override
@@ -223,7 +351,7 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     public void deleteById(UUID id) {
         Enrollment enrollment = enrollmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Enrollment", "id", id));
-        enrollment.setStatus(EnrollmentStatus.DROPPED); // Soft delete
+        changeStatus(enrollment, EnrollmentStatus.DROPPED); // Soft delete
         enrollmentRepository.save(enrollment);
     }
 
@@ -241,6 +369,44 @@ public class EnrollmentServiceImpl implements EnrollmentService {
 
     // --- Private Helper Methods to reduce code duplication ---
 
+    /**
+     * Dropping releases the enrollment's seat; reactivating a dropped enrollment takes one again.
+     * Any status change moves the course's progress totals
+     */
+    private void changeStatus(Enrollment enrollment, EnrollmentStatus status) {
+        boolean wasDropped = enrollment.getStatus() == EnrollmentStatus.DROPPED;
+        boolean isDropped = status == EnrollmentStatus.DROPPED;
+        UUID courseId = enrollment.getCourse().getId();
+        if (!wasDropped && isDropped) {
+            seatLedger.release(courseId, 1);
+            membershipIndex.removed(courseId, enrollment.getStudent().getId());
+        } else if (wasDropped && !isDropped) {
+            if (!seatLedger.reserve(courseId, 1)) {
+                throw new BusinessLogicException("Course has reached maximum capacity");
+            }
+            membershipIndex.added(courseId, enrollment.getStudent().getId());
+        }
+        if (enrollment.getStatus() != status) {
+            progressRollups.enrollmentChanged(courseId, EnrollmentState.of(enrollment),
+                    new EnrollmentState(status, enrollment.getProgressPercentage()));
+        }
+        enrollment.setStatus(status);
+    }
+
+    private static ActivityFeedDto toActivityFeedDto(ActivityFeed.Page page) {
+        return ActivityFeedDto.builder()
+                .events(page.entries().stream()
+                        .map(entry -> ActivityFeedDto.Event.builder()
+                                .type(entry.type())
+                                .courseId(entry.courseId())
+                                .studentId(entry.studentId())
+                                .occurredAt(entry.occurredAt())
+                                .build())
+                        .collect(Collectors.toList()))
+                .nextBefore(page.nextBefore())
+                .build();
+    }
+
     private User findUserById(UUID userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
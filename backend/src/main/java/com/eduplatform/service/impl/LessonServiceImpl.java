@@ -15,9 +15,12 @@ import com.eduplatform.repository.LessonRepository;
 import com.eduplatform.repository.UserRepository;
 import com.eduplatform.service.FileService;
 import com.eduplatform.service.LessonService;
+import com.eduplatform.service.progress.CourseLessonCountCache;
+import com.eduplatform.service.progress.CourseStructureChangedEvent;
 import com.eduplatform.util.SlugUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -40,6 +43,8 @@ public class LessonServiceImpl implements LessonService {
     private final UserRepository userRepository;
     private final LessonMapper lessonMapper;
     private final FileService fileService;
+    private final CourseLessonCountCache lessonCountCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public LessonDto createLesson(CreateLessonRequest request, UUID instructorId) {
@@ -52,6 +57,8 @@ public class LessonServiceImpl implements LessonService {
         lesson.setSlug(SlugUtils.generateSlug(request.getTitle()));
 
         Lesson savedLesson = lessonRepository.save(lesson);
+        lessonCountCache.evict(course.getId());
+        eventPublisher.publishEvent(new CourseStructureChangedEvent(course.getId()));
         log.info("Lesson created successfully with ID: {}", savedLesson.getId());
         return lessonMapper.toDto(savedLesson);
     }
@@ -80,6 +87,8 @@ public class LessonServiceImpl implements LessonService {
         
         // For soft delete, you would set a flag here instead of calling delete
         lessonRepository.delete(lesson);
+        lessonCountCache.evict(lesson.getCourse().getId());
+        eventPublisher.publishEvent(new CourseStructureChangedEvent(lesson.getCourse().getId()));
         log.info("Lesson deleted successfully: {}", lessonId);
     }
     
@@ -166,10 +175,10 @@ public class LessonServiceImpl implements LessonService {
 
     @Override
     public void deleteById(UUID id) {
-        if (!lessonRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Lesson", "id", id);
-        }
-        lessonRepository.deleteById(id);
+        Lesson lesson = findLessonById(id);
+        lessonRepository.delete(lesson);
+        lessonCountCache.evict(lesson.getCourse().getId());
+        eventPublisher.publishEvent(new CourseStructureChangedEvent(lesson.getCourse().getId()));
     }
 
     @Override
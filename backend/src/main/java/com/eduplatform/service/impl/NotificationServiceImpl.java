@@ -20,7 +20,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Service implementation for managing user notifications.
@@ -130,6 +133,25 @@ public class NotificationServiceImpl implements NotificationService {
         createNotification(request);
     }
 
+    @Override
+    public void sendEnrollmentNotifications(Collection<UUID> studentIds, UUID courseId) {
+        log.info("Sending enrollment notifications to {} student(s) for course: {}", studentIds.size(), courseId);
+        Course course = findCourseById(courseId);
+        String message = String.format("You have successfully enrolled in: %s", course.getTitle());
+
+        List<Notification> notifications = studentIds.stream()
+                .map(studentId -> Notification.builder()
+                        .user(userRepository.getReferenceById(studentId))
+                        .title("Course Enrollment Successful")
+                        .message(message)
+                        .type(NotificationType.COURSE_ENROLLMENT)
+                        .actionUrl("/courses/" + courseId)
+                        .isRead(false)
+                        .build())
+                .collect(Collectors.toList());
+        notificationRepository.saveAll(notifications);
+    }
+
     @Override
     public void sendCourseCompletionNotification(UUID studentId, UUID courseId) {
         log.info("Sending course completion notification to student: {} for course: {}", studentId, courseId);
@@ -145,6 +167,25 @@ public class NotificationServiceImpl implements NotificationService {
         createNotification(request);
     }
 
+    @Override
+    public void sendCourseCompletionNotifications(Collection<UUID> studentIds, UUID courseId) {
+        log.info("Sending course completion notifications to {} student(s) for course: {}", studentIds.size(), courseId);
+        Course course = findCourseById(courseId);
+        String message = String.format("Congratulations! You have completed the course: %s", course.getTitle());
+
+        List<Notification> notifications = studentIds.stream()
+                .map(studentId -> Notification.builder()
+                        .user(userRepository.getReferenceById(studentId))
+                        .title("Course Completed!")
+                        .message(message)
+                        .type(NotificationType.COURSE_COMPLETED)
+                        .actionUrl("/certificates/" + courseId)
+                        .isRead(false)
+                        .build())
+                .collect(Collectors.toList());
+        notificationRepository.saveAll(notifications);
+    }
+
     /**
      * FIX: Added the missing implementation for this method.
      */
@@ -1,26 +1,57 @@
 package com.eduplatform.service.impl;
 
+import com.eduplatform.dto.request.ProgressSyncRequest;
 import com.eduplatform.dto.request.UpdateProgressRequest;
 import com.eduplatform.dto.response.CourseProgressSummaryDto;
+import com.eduplatform.dto.response.CourseRecomputeStatusDto;
 import com.eduplatform.dto.response.LearningAnalyticsDto;
+import com.eduplatform.dto.response.LessonEngagementDto;
 import com.eduplatform.dto.response.LessonProgressDto;
+import com.eduplatform.dto.response.ProgressSyncResultDto;
 import com.eduplatform.dto.response.UserProgressDto;
+import com.eduplatform.exception.BusinessLogicException;
 import com.eduplatform.exception.ResourceNotFoundException;
 import com.eduplatform.mapper.LessonProgressMapper;
 import com.eduplatform.mapper.UserProgressMapper;
 import com.eduplatform.model.*;
+import com.eduplatform.model.enums.LearningEventType;
+import com.eduplatform.model.enums.OutboxEventType;
 import com.eduplatform.model.enums.ProgressStatus;
 import com.eduplatform.repository.*;
-import com.eduplatform.service.NotificationService;
 import com.eduplatform.service.ProgressService;
+import com.eduplatform.service.activity.ActivityFeed;
+import com.eduplatform.service.enrollment.EnrollmentMembershipIndex;
+import com.eduplatform.service.outbox.OutboxPayloads;
+import com.eduplatform.service.outbox.OutboxPublisher;
+import com.eduplatform.service.progress.CourseLessonCountCache;
+import com.eduplatform.service.progress.CourseProgressRollups;
+import com.eduplatform.service.progress.CourseProgressRollups.EnrollmentState;
+import com.eduplatform.service.progress.CourseProgressCounter;
+import com.eduplatform.service.progress.CourseProgressRecomputer;
+import com.eduplatform.service.progress.LearningActivityReader;
+import com.eduplatform.service.progress.LearningEventAppender;
+import com.eduplatform.service.progress.LessonProgressChangedEvent;
+import com.eduplatform.service.progress.LessonProgressHeartbeatBuffer;
+import com.eduplatform.service.progress.ProgressSyncWriter;
+import com.eduplatform.service.progress.UserProgressProjector;
+import com.eduplatform.service.progress.VideoEngagementAggregator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-// import java.time.LocalDateTime;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -32,6 +63,8 @@ import java.util.stream.Collectors;
 @Transactional
 public class ProgressServiceImpl implements ProgressService {
 
+    private static final int ANALYTICS_WINDOW_DAYS = 90;
+
     private final UserProgressRepository userProgressRepository;
     private final LessonProgressRepository lessonProgressRepository;
     private final UserRepository userRepository;
@@ -40,7 +73,20 @@ public class ProgressServiceImpl implements ProgressService {
     private final EnrollmentRepository enrollmentRepository;
     private final LessonProgressMapper lessonProgressMapper;
     private final UserProgressMapper userProgressMapper;
-    private final NotificationService notificationService;
+    private final OutboxPublisher outboxPublisher;
+    private final LessonProgressHeartbeatBuffer heartbeatBuffer;
+    private final CourseProgressCounter courseProgressCounter;
+    private final CourseLessonCountCache lessonCountCache;
+    private final UserProgressProjector userProgressProjector;
+    private final ProgressSyncWriter progressSyncWriter;
+    private final CourseProgressRollups progressRollups;
+    private final LearningEventAppender learningEvents;
+    private final LearningActivityReader learningActivityReader;
+    private final VideoEngagementAggregator engagementAggregator;
+    private final CourseProgressRecomputer progressRecomputer;
+    private final EnrollmentMembershipIndex membershipIndex;
+    private final ActivityFeed activityFeed;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public LessonProgressDto updateLessonProgress(UUID userId, UUID lessonId, UpdateProgressRequest request) {
@@ -48,30 +94,150 @@ public class ProgressServiceImpl implements ProgressService {
 
         User user = findUserById(userId);
         Lesson lesson = findLessonById(lessonId);
+        UUID courseId = lesson.getCourse().getId();
+        requireEnrolled(userId, courseId);
 
         LessonProgress progress = lessonProgressRepository.findByUserAndLesson(user, lesson)
                 .orElseGet(() -> new LessonProgress(user, lesson));
 
+        boolean newlyStarted = progress.getStatus() == ProgressStatus.NOT_STARTED;
+        int previousTimeSpent = progress.getTimeSpentSeconds();
         progress.markAsStarted();
 
+        // Fold in heartbeats still waiting in the write-behind buffer so they are not lost
+        // or double counted when the row is written synchronously
+        heartbeatBuffer.drain(userId, lessonId).ifPresent(heartbeat -> {
+            progress.setTimeSpentSeconds(progress.getTimeSpentSeconds() + heartbeat.timeSpentSeconds());
+            progress.setVideoPositionSeconds(
+                    Math.max(progress.getVideoPositionSeconds(), heartbeat.maxVideoPositionSeconds()));
+        });
+
         if (request.getTimeSpent() != null) {
             // FIX: The field is 'timeSpentSeconds', so the method is setTimeSpentSeconds
             progress.setTimeSpentSeconds(progress.getTimeSpentSeconds() + request.getTimeSpent());
         }
 
+        if (request.getVideoPosition() != null) {
+            engagementAggregator.record(lessonId, request.getVideoPosition(), request.getTimeSpent());
+            progress.setVideoPositionSeconds(Math.max(progress.getVideoPositionSeconds(), request.getVideoPosition()));
+        }
+
+        boolean newlyCompleted = false;
         if (request.getCompleted() != null && request.getCompleted()) {
+            newlyCompleted = !progress.isCompleted();
             progress.markAsCompleted(null);
         }
 
-        LessonProgress savedProgress = lessonProgressRepository.save(progress);
-
-        if (savedProgress.isCompleted()) {
-            recalculateCourseProgress(userId, lesson.getCourse().getId());
+        LessonProgress savedProgress;
+        if (newlyCompleted) {
+            // Flush first: the version check / unique key on lesson_progress lets only one
+            // concurrent completion of the same lesson through to the course counter
+            savedProgress = lessonProgressRepository.saveAndFlush(progress);
+            progressRollups.lessonCompleted(courseId, lessonId, savedProgress.getScore());
+            learningEvents.append(userId, courseId, lessonId, LearningEventType.LESSON_COMPLETED, 0);
+            if (courseProgressCounter.recordLessonCompleted(userId, courseId)) {
+                learningEvents.append(userId, courseId, null, LearningEventType.COURSE_COMPLETED, 0);
+                activityFeed.record(LearningEventType.COURSE_COMPLETED, courseId, userId);
+                outboxPublisher.publish(OutboxEventType.COURSE_COMPLETION_NOTIFICATION,
+                    new OutboxPayloads.CourseMember(userId, courseId));
+            }
+        } else {
+            savedProgress = lessonProgressRepository.save(progress);
         }
+        if (newlyStarted) {
+            progressRollups.lessonStarted(courseId, lessonId);
+            learningEvents.append(userId, courseId, lessonId, LearningEventType.LESSON_STARTED, 0);
+        }
+        int timeSpentDelta = savedProgress.getTimeSpentSeconds() - previousTimeSpent;
+        progressRollups.timeSpent(courseId, lessonId, timeSpentDelta);
+        // Drained heartbeats already have their own events (see recordProgressHeartbeat); log only this request's time
+        if (request.getTimeSpent() != null && request.getTimeSpent() > 0) {
+            learningEvents.append(userId, courseId, lessonId, LearningEventType.HEARTBEAT, request.getTimeSpent(),
+                    savedProgress.getVideoPositionSeconds(), null);
+        }
+        eventPublisher.publishEvent(new LessonProgressChangedEvent(userId, courseId, lessonId));
         log.info("Lesson progress updated for user: {}, lesson: {}", userId, lessonId);
         return lessonProgressMapper.toDto(savedProgress);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void recordProgressHeartbeat(UUID userId, UUID lessonId, UpdateProgressRequest request) {
+        UUID courseId = heartbeatBuffer.findCourseId(lessonId);
+        requireEnrolled(userId, courseId);
+        heartbeatBuffer.record(userId, lessonId, courseId, request.getVideoPosition(), request.getTimeSpent());
+        engagementAggregator.record(lessonId, request.getVideoPosition(), request.getTimeSpent());
+        learningEvents.append(userId, courseId, lessonId, LearningEventType.HEARTBEAT,
+                request.getTimeSpent() != null ? request.getTimeSpent() : 0, request.getVideoPosition(), null);
+    }
+
+    /**
+     * Apply a batch of offline progress events (idempotent per event key), then fan out the
+     * per-course side effects of what was applied
+     */
+    @Override
+    public ProgressSyncResultDto syncProgress(UUID userId, ProgressSyncRequest request) {
+        ProgressSyncWriter.Result result = progressSyncWriter.apply(userId, request.getEvents());
+
+        result.courseIds().forEach(courseId ->
+                eventPublisher.publishEvent(new LessonProgressChangedEvent(userId, courseId, null)));
+        result.completedCourseIds().forEach(courseId -> {
+            learningEvents.append(userId, courseId, null, LearningEventType.COURSE_COMPLETED, 0);
+            activityFeed.record(LearningEventType.COURSE_COMPLETED, courseId, userId);
+            outboxPublisher.publish(OutboxEventType.COURSE_COMPLETION_NOTIFICATION,
+                    new OutboxPayloads.CourseMember(userId, courseId));
+        });
+
+        log.info("Progress sync for user {}: {} received, {} applied, {} duplicate, {} rejected",
+                userId, result.received(), result.applied(), result.duplicates(), result.rejectedKeys().size());
+        return ProgressSyncResultDto.builder()
+                .received(result.received())
+                .applied(result.applied())
+                .duplicates(result.duplicates())
+                .lessonsUpdated(result.lessonIds().size())
+                .rejectedKeys(result.rejectedKeys())
+                .build();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildUserProgressReadModel() {
+        if (userProgressProjector.isBackfillRunning()) {
+            throw new BusinessLogicException("A user progress rebuild is already running");
+        }
+        userProgressProjector.backfill();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CourseRecomputeStatusDto recomputeCourseProgress(UUID courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("Course", "id", courseId);
+        }
+        progressRecomputer.schedule(courseId);
+        return getCourseRecomputeStatus(courseId).orElseThrow();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<CourseRecomputeStatusDto> getCourseRecomputeStatus(UUID courseId) {
+        return progressRecomputer.getStatus(courseId)
+                .map(status -> CourseRecomputeStatusDto.builder()
+                        .courseId(status.courseId())
+                        .state(status.state())
+                        .totalEnrollments(status.totalEnrollments())
+                        .processed(status.processed())
+                        .changed(status.changed())
+                        .completed(status.completed())
+                        .startedAt(status.startedAt())
+                        .finishedAt(status.finishedAt())
+                        .error(status.error())
+                        .build());
+    }
+
+    /**
+     * Full recount of a user's course progress (repair path; completions are counted incrementally)
+     */
     @Override
     public void recalculateCourseProgress(UUID userId, UUID courseId) {
         log.info("Recalculating course progress for user: {}, course: {}", userId, courseId);
@@ -82,29 +248,42 @@ public class ProgressServiceImpl implements ProgressService {
 
         Enrollment enrollment = enrollmentRepository.findByStudentAndCourse(user, course)
                 .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found"));
+        EnrollmentState before = EnrollmentState.of(enrollment);
 
+        // A repair also refreshes the cached lesson count used by the incremental path
+        lessonCountCache.evict(courseId);
         long totalLessons = lessonRepository.countByCourse(course);
+
+        // FIX: Removed underscore from the method name to match the repository definition
+        long completedLessons = lessonProgressRepository.countByUserAndLessonCourseAndStatus(user, course, ProgressStatus.COMPLETED);
+        enrollment.setLessonsCompleted((int) completedLessons);
+
         if (totalLessons == 0) {
             enrollment.setProgressPercentage(BigDecimal.ZERO);
             enrollmentRepository.save(enrollment);
+            progressRollups.enrollmentChanged(courseId, before, EnrollmentState.of(enrollment));
+            eventPublisher.publishEvent(new LessonProgressChangedEvent(userId, courseId, null));
             return;
         }
 
-        // FIX: Removed underscore from the method name to match the repository definition
-        long completedLessons = lessonProgressRepository.countByUserAndLessonCourseAndStatus(user, course, ProgressStatus.COMPLETED);
-
-        BigDecimal progressPercentage = BigDecimal.valueOf(completedLessons)
+        BigDecimal progressPercentage = BigDecimal.valueOf(Math.min(completedLessons, totalLessons))
                 .multiply(BigDecimal.valueOf(100))
                 .divide(BigDecimal.valueOf(totalLessons), 2, RoundingMode.HALF_UP);
 
         enrollment.setProgressPercentage(progressPercentage);
 
-        if (completedLessons == totalLessons) {
+        // Repairs do not notify again for a course that was already completed
+        if (completedLessons >= totalLessons && !enrollment.isCompleted()) {
             enrollment.markCompleted();
-            notificationService.sendCourseCompletionNotification(userId, courseId);
+            learningEvents.append(userId, courseId, null, LearningEventType.COURSE_COMPLETED, 0);
+            activityFeed.record(LearningEventType.COURSE_COMPLETED, courseId, userId);
+            outboxPublisher.publish(OutboxEventType.COURSE_COMPLETION_NOTIFICATION,
+                    new OutboxPayloads.CourseMember(userId, courseId));
         }
 
         enrollmentRepository.save(enrollment);
+        progressRollups.enrollmentChanged(courseId, before, EnrollmentState.of(enrollment));
+        eventPublisher.publishEvent(new LessonProgressChangedEvent(userId, courseId, null));
         log.info("Course progress for user {} in course {} is now {}%", userId, courseId, progressPercentage);
     }
 
@@ -133,8 +312,7 @@ public class ProgressServiceImpl implements ProgressService {
     @Override
     @Transactional(readOnly = true)
     public List<UserProgressDto> getAllUserProgress(UUID userId) {
-        User user = findUserById(userId);
-        return userProgressRepository.findByUser(user)
+        return userProgressRepository.findByUser_Id(userId)
                 .stream()
                 .map(userProgressMapper::toDto)
                 .collect(Collectors.toList());
@@ -149,12 +327,147 @@ public class ProgressServiceImpl implements ProgressService {
                 .map(lessonProgressMapper::toDto);
     }
     
-    // --- Other placeholders ---
-    @Override public CourseProgressSummaryDto getCourseProgressSummary(UUID courseId) { throw new UnsupportedOperationException("Not implemented yet"); }
-    @Override public LearningAnalyticsDto getLearningAnalytics(UUID userId) { throw new UnsupportedOperationException("Not implemented yet"); }
+    @Override
+    public CourseProgressSummaryDto getCourseProgressSummary(UUID courseId) {
+        CourseProgressRollups.CourseTotals totals = progressRollups.findCourseTotals(courseId).orElse(null);
+        if (totals == null) {
+            // First read of a course without a rollup yet (e.g. created since the last reconciliation)
+            if (!courseRepository.existsById(courseId)) {
+                throw new ResourceNotFoundException("Course", "id", courseId);
+            }
+            progressRollups.reconcileCourse(courseId);
+            totals = progressRollups.findCourseTotals(courseId)
+                    .orElse(new CourseProgressRollups.CourseTotals(0, 0, 0, BigDecimal.ZERO));
+        }
+
+        List<CourseProgressRollups.LessonFunnel> funnel = progressRollups.findLessonFunnel(courseId);
+        long totalStudents = totals.totalStudents();
+        long totalTimeSpentSeconds = funnel.stream().mapToLong(CourseProgressRollups.LessonFunnel::timeSpentSeconds).sum();
+
+        return CourseProgressSummaryDto.builder()
+                .courseId(courseId)
+                .totalStudents((int) totalStudents)
+                .studentsInProgress((int) totals.studentsInProgress())
+                .studentsCompleted((int) totals.studentsCompleted())
+                .averageProgress(totalStudents == 0 ? BigDecimal.ZERO
+                        : totals.progressSum().divide(BigDecimal.valueOf(totalStudents), 2, RoundingMode.HALF_UP))
+                .completionRate(percentage(totals.studentsCompleted(), totalStudents))
+                .averageTimeSpent(totalStudents == 0 ? 0 : (int) (totalTimeSpentSeconds / totalStudents / 60))
+                .lessons(funnel.stream()
+                        .map(lesson -> CourseProgressSummaryDto.LessonFunnel.builder()
+                                .lessonId(lesson.lessonId())
+                                .title(lesson.title())
+                                .sortOrder(lesson.sortOrder())
+                                .started(lesson.started())
+                                .completed(lesson.completed())
+                                .completionRate(percentage(lesson.completed(), lesson.started()))
+                                .averageTimeSpent(lesson.started() == 0 ? 0
+                                        : (int) (lesson.timeSpentSeconds() / lesson.started()))
+                                .averageScore(lesson.scoreCount() == 0 ? null
+                                        : BigDecimal.valueOf(lesson.scoreSum() / lesson.scoreCount())
+                                                .setScale(2, RoundingMode.HALF_UP))
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LearningAnalyticsDto getLearningAnalytics(UUID userId) {
+        User user = findUserById(userId);
+        ZoneId zone = userZone(user);
+
+        // Bounded window so the scan only touches the partitions it covers
+        LocalDate today = LocalDate.now(zone);
+        Instant from = today.minusDays(ANALYTICS_WINDOW_DAYS - 1L).atStartOfDay(zone).toInstant();
+        Instant to = today.plusDays(1).atStartOfDay(zone).toInstant();
+        List<LearningActivityReader.DailyActivity> days = learningActivityReader.findDailyActivity(userId, zone, from, to);
+        LearningActivityReader.UserTotals totals = learningActivityReader.findUserTotals(userId);
+
+        long activeSeconds = days.stream().mapToLong(LearningActivityReader.DailyActivity::timeSpentSeconds).sum();
+        Instant lastActivity = days.isEmpty() ? null : days.get(days.size() - 1).lastOccurredAt();
+
+        int longestStreak = 0;
+        int streak = 0;
+        LocalDate previous = null;
+        for (LearningActivityReader.DailyActivity day : days) {
+            streak = previous != null && previous.plusDays(1).equals(day.day()) ? streak + 1 : 1;
+            longestStreak = Math.max(longestStreak, streak);
+            previous = day.day();
+        }
+        // The current streak survives until the end of the day after the last active one
+        int currentStreak = previous != null && !previous.isBefore(today.minusDays(1)) ? streak : 0;
+
+        return LearningAnalyticsDto.builder()
+                .totalCoursesEnrolled((int) totals.coursesEnrolled())
+                .coursesCompleted((int) totals.coursesCompleted())
+                .totalLessonsCompleted((int) totals.lessonsCompleted())
+                .totalTimeSpent((int) totals.timeSpentMinutes())
+                .averageSessionTime(days.isEmpty() ? BigDecimal.ZERO
+                        : BigDecimal.valueOf(activeSeconds)
+                                .divide(BigDecimal.valueOf(60L * days.size()), 2, RoundingMode.HALF_UP))
+                .lastActivity(lastActivity != null ? LocalDateTime.ofInstant(lastActivity, zone) : null)
+                .currentStreak(currentStreak)
+                .longestStreak(longestStreak)
+                .dailyActivity(days.stream()
+                        .map(day -> LearningAnalyticsDto.DailyActivity.builder()
+                                .date(day.day())
+                                .minutesSpent((int) (day.timeSpentSeconds() / 60))
+                                .events(day.events())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LessonEngagementDto getLessonEngagement(UUID lessonId) {
+        Lesson lesson = findLessonById(lessonId);
+        long[] bins = engagementAggregator.getHistogram(lessonId);
+
+        // Pad to the full video so trailing bins nobody reached show as zero
+        if (lesson.getVideoDuration() != null) {
+            int binCount = (lesson.getVideoDuration() + VideoEngagementAggregator.BIN_WIDTH_SECONDS - 1)
+                    / VideoEngagementAggregator.BIN_WIDTH_SECONDS;
+            if (bins.length < binCount) {
+                bins = Arrays.copyOf(bins, binCount);
+            }
+        }
+
+        return LessonEngagementDto.builder()
+                .lessonId(lessonId)
+                .videoDuration(lesson.getVideoDuration())
+                .binWidthSeconds(VideoEngagementAggregator.BIN_WIDTH_SECONDS)
+                .bins(bins)
+                .peakBinViews(Arrays.stream(bins).max().orElse(0L))
+                .build();
+    }
 
     // --- Private Helper Methods ---
 
+    private static BigDecimal percentage(long part, long whole) {
+        if (whole == 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(Math.min(part, whole))
+                .multiply(BigDecimal.valueOf(100))
+                .divide(BigDecimal.valueOf(whole), 2, RoundingMode.HALF_UP);
+    }
+
+    private static ZoneId userZone(User user) {
+        try {
+            return user.getTimezone() != null ? ZoneId.of(user.getTimezone()) : ZoneOffset.UTC;
+        } catch (DateTimeException e) {
+            return ZoneOffset.UTC;
+        }
+    }
+
+    private void requireEnrolled(UUID userId, UUID courseId) {
+        if (!membershipIndex.isMember(userId, courseId)) {
+            throw new AccessDeniedException("You are not enrolled in this course");
+        }
+    }
+
     private User findUserById(UUID userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
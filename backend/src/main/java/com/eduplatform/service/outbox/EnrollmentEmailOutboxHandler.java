@@ -0,0 +1,48 @@
+package com.eduplatform.service.outbox;
+
+import com.eduplatform.model.Course;
+import com.eduplatform.model.User;
+import com.eduplatform.model.enums.OutboxEventType;
+import com.eduplatform.repository.CourseRepository;
+import com.eduplatform.repository.UserRepository;
+import com.eduplatform.service.EmailService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Sends enrollment confirmation emails queued in the outbox
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EnrollmentEmailOutboxHandler implements OutboxHandler {
+
+    private final UserRepository userRepository;
+    private final CourseRepository courseRepository;
+    private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Set<OutboxEventType> getEventTypes() {
+        return Set.of(OutboxEventType.ENROLLMENT_CONFIRMATION_EMAIL);
+    }
+
+    @Override
+    public void handle(OutboxEventType type, String payload) throws Exception {
+        OutboxPayloads.CourseMember member = objectMapper.readValue(payload, OutboxPayloads.CourseMember.class);
+        Optional<User> student = userRepository.findById(member.studentId());
+        Optional<Course> course = courseRepository.findById(member.courseId());
+        if (student.isEmpty() || course.isEmpty()) {
+            // Deleted since the enrollment; there is nobody left to tell
+            log.info("Skipping enrollment confirmation for student {} course {}", member.studentId(), member.courseId());
+            return;
+        }
+        emailService.sendEnrollmentConfirmation(student.get().getEmail(), student.get().getFirstName(),
+                course.get().getTitle());
+    }
+}
@@ -0,0 +1,51 @@
+package com.eduplatform.service.outbox;
+
+import com.eduplatform.model.enums.OutboxEventType;
+import com.eduplatform.service.NotificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Creates in-app notifications queued in the outbox
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationOutboxHandler implements OutboxHandler {
+
+    private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Set<OutboxEventType> getEventTypes() {
+        return Set.of(OutboxEventType.ENROLLMENT_NOTIFICATION,
+                OutboxEventType.ENROLLMENT_NOTIFICATIONS,
+                OutboxEventType.COURSE_COMPLETION_NOTIFICATION,
+                OutboxEventType.COURSE_COMPLETION_NOTIFICATIONS);
+    }
+
+    @Override
+    public void handle(OutboxEventType type, String payload) throws Exception {
+        switch (type) {
+            case ENROLLMENT_NOTIFICATION -> {
+                OutboxPayloads.CourseMember member = objectMapper.readValue(payload, OutboxPayloads.CourseMember.class);
+                notificationService.sendEnrollmentNotification(member.studentId(), member.courseId());
+            }
+            case ENROLLMENT_NOTIFICATIONS -> {
+                OutboxPayloads.CourseMembers members = objectMapper.readValue(payload, OutboxPayloads.CourseMembers.class);
+                notificationService.sendEnrollmentNotifications(members.studentIds(), members.courseId());
+            }
+            case COURSE_COMPLETION_NOTIFICATION -> {
+                OutboxPayloads.CourseMember member = objectMapper.readValue(payload, OutboxPayloads.CourseMember.class);
+                notificationService.sendCourseCompletionNotification(member.studentId(), member.courseId());
+            }
+            case COURSE_COMPLETION_NOTIFICATIONS -> {
+                OutboxPayloads.CourseMembers members = objectMapper.readValue(payload, OutboxPayloads.CourseMembers.class);
+                notificationService.sendCourseCompletionNotifications(members.studentIds(), members.courseId());
+            }
+            default -> throw new IllegalArgumentException("Unsupported outbox event type " + type);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.eduplatform.service.outbox;
+
+import com.eduplatform.model.enums.OutboxEventType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Outbox Dispatcher
+ * Polls outbox_events and hands due rows to their OutboxHandler. Rows are claimed with
+ * FOR UPDATE SKIP LOCKED and leased (status PROCESSING, locked_until) in one short statement,
+ * so several nodes can dispatch in parallel without taking the same row and no transaction is
+ * open while a handler talks to SMTP. A lease that expires (node died mid-delivery) makes the
+ * row claimable again. Failures are retried with exponential backoff until max attempts, after
+ * which the row is parked as FAILED.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private static final String CLAIM_SQL = """
+            UPDATE outbox_events
+            SET status = 'PROCESSING',
+                locked_until = now() + make_interval(secs => ?),
+                attempts = attempts + 1
+            WHERE id IN (
+                SELECT id FROM outbox_events
+                WHERE (status = 'PENDING' AND next_attempt_at <= now())
+                   OR (status = 'PROCESSING' AND locked_until < now())
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id, event_type, payload::text, attempts
+            """;
+
+    private static final String DONE_SQL = """
+            UPDATE outbox_events
+            SET status = 'DONE', processed_at = now(), locked_until = NULL, last_error = NULL
+            WHERE id = ?
+            """;
+
+    private static final String RETRY_SQL = """
+            UPDATE outbox_events
+            SET status = CASE WHEN attempts >= ? THEN 'FAILED' ELSE 'PENDING' END,
+                next_attempt_at = now() + make_interval(secs => ?),
+                locked_until = NULL,
+                last_error = ?
+            WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<OutboxEventType, OutboxHandler> handlers = new EnumMap<>(OutboxEventType.class);
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    public OutboxDispatcher(JdbcTemplate jdbcTemplate,
+                            List<OutboxHandler> handlers,
+                            @Value("${app.outbox.batch-size:50}") int batchSize,
+                            @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${app.outbox.lease:5m}") Duration lease,
+                            @Value("${app.outbox.initial-backoff:30s}") Duration initialBackoff,
+                            @Value("${app.outbox.max-backoff:1h}") Duration maxBackoff,
+                            @Value("${app.outbox.retention:7d}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+        for (OutboxHandler handler : handlers) {
+            handler.getEventTypes().forEach(type -> {
+                if (this.handlers.putIfAbsent(type, handler) != null) {
+                    throw new IllegalStateException("More than one outbox handler for " + type);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        List<Claimed> batch;
+        do {
+            batch = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new Claimed(
+                    rs.getObject(1, UUID.class),
+                    rs.getString(2),
+                    rs.getString(3),
+                    rs.getInt(4)), lease.toSeconds(), batchSize);
+            batch.forEach(this::deliver);
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Drop delivered rows past retention; FAILED rows are kept for inspection
+     */
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 50 3 * * *}")
+    public void purgeDelivered() {
+        int deleted = jdbcTemplate.update("DELETE FROM outbox_events WHERE status = 'DONE' AND processed_at < ?",
+                Timestamp.from(Instant.now().minus(retention)));
+        if (deleted > 0) {
+            log.info("Purged {} delivered outbox event(s)", deleted);
+        }
+    }
+
+    private void deliver(Claimed event) {
+        try {
+            OutboxHandler handler = handlers.get(OutboxEventType.valueOf(event.type()));
+            if (handler == null) {
+                throw new IllegalStateException("No outbox handler for " + event.type());
+            }
+            handler.handle(OutboxEventType.valueOf(event.type()), event.payload());
+            jdbcTemplate.update(DONE_SQL, event.id());
+        } catch (Exception e) {
+            long delay = backoffSeconds(event.attempts());
+            if (event.attempts() >= maxAttempts) {
+                log.error("Outbox event {} ({}) failed after {} attempt(s), giving up: {}",
+                        event.id(), event.type(), event.attempts(), e.getMessage());
+            } else {
+                log.warn("Outbox event {} ({}) failed on attempt {}, retrying in {}s: {}",
+                        event.id(), event.type(), event.attempts(), delay, e.getMessage());
+            }
+            jdbcTemplate.update(RETRY_SQL, maxAttempts, delay, String.valueOf(e.getMessage()), event.id());
+        }
+    }
+
+    /**
+     * initial * 2^(attempt - 1), capped, with up to 20% jitter so retries of one outage spread out
+     */
+    private long backoffSeconds(int attempts) {
+        long base = initialBackoff.toSeconds() << Math.min(Math.max(attempts - 1, 0), 20);
+        long capped = Math.min(base, maxBackoff.toSeconds());
+        return capped + ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+    }
+
+    private record Claimed(UUID id, String type, String payload, int attempts) {
+    }
+}
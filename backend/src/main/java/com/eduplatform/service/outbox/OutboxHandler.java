@@ -0,0 +1,16 @@
+package com.eduplatform.service.outbox;
+
+import com.eduplatform.model.enums.OutboxEventType;
+
+import java.util.Set;
+
+/**
+ * Delivers outbox events of some types. Delivery is at least once, so handlers must tolerate
+ * seeing an event again after a failure; throwing schedules a retry with backoff.
+ */
+public interface OutboxHandler {
+
+    Set<OutboxEventType> getEventTypes();
+
+    void handle(OutboxEventType type, String payload) throws Exception;
+}
@@ -0,0 +1,25 @@
+package com.eduplatform.service.outbox;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JSON payloads of outbox events
+ */
+public final class OutboxPayloads {
+
+    private OutboxPayloads() {
+    }
+
+    /**
+     * One student of one course
+     */
+    public record CourseMember(UUID studentId, UUID courseId) {
+    }
+
+    /**
+     * Many students of one course, delivered as one batch
+     */
+    public record CourseMembers(UUID courseId, List<UUID> studentIds) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.eduplatform.service.outbox;
+
+import com.eduplatform.model.enums.OutboxEventType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Outbox Publisher
+ * Records a side effect as an outbox_events row on the caller's connection, so it commits or
+ * rolls back together with the business change. Delivery happens later in OutboxDispatcher.
+ */
+@Component
+public class OutboxPublisher {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (event_type, payload) VALUES (?, ?::jsonb)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OutboxPublisher(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void publish(OutboxEventType type, Object payload) {
+        jdbcTemplate.update(INSERT_SQL, type.name(), toJson(payload));
+    }
+
+    /**
+     * One row per payload, written as a single JDBC batch
+     */
+    public void publishAll(OutboxEventType type, List<?> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, payloads.stream()
+                .map(payload -> new Object[]{type.name(), toJson(payload)})
+                .toList());
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable: " + payload, e);
+        }
+    }
+}
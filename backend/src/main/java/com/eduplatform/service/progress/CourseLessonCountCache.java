@@ -0,0 +1,66 @@
+package com.eduplatform.service.progress;
+
+import com.eduplatform.repository.LessonRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Course Lesson Count Cache
+ * Per-node cache of course id -> number of lessons, used as the denominator of course progress
+ * so that a lesson completion does not count the course's lessons again. Entries are evicted
+ * when lessons are added or removed on this node and expire after a TTL for changes elsewhere.
+ */
+@Slf4j
+@Component
+public class CourseLessonCountCache {
+
+    private final LessonRepository lessonRepository;
+    private final Cache<UUID, Long> cache;
+
+    public CourseLessonCountCache(LessonRepository lessonRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.progress.lesson-count-cache.ttl:10m}") Duration ttl,
+                                  @Value("${app.progress.lesson-count-cache.maximum-size:10000}") long maximumSize) {
+        this.lessonRepository = lessonRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "course.lesson_count");
+    }
+
+    public long getLessonCount(UUID courseId) {
+        return cache.get(courseId, lessonRepository::countByCourseId);
+    }
+
+    /**
+     * Evict a course now and again once the surrounding transaction completes,
+     * so a concurrent load cannot re-cache the pre-commit count
+     */
+    public void evict(UUID courseId) {
+        if (courseId == null) {
+            return;
+        }
+        cache.invalidate(courseId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(courseId);
+                }
+            });
+        }
+        log.debug("Evicted lesson count for course {}", courseId);
+    }
+}
@@ -0,0 +1,100 @@
+package com.eduplatform.service.progress;
+
+import com.eduplatform.exception.ResourceNotFoundException;
+import com.eduplatform.model.enums.EnrollmentStatus;
+import com.eduplatform.service.progress.CourseProgressRollups.EnrollmentState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Course Progress Counter
+ * Applies a first-time lesson completion to the enrollment with a single atomic
+ * lessons_completed = lessons_completed + 1 update instead of recounting the user's completed
+ * lessons. Callers must only invoke it on the NOT COMPLETED -> COMPLETED transition of a
+ * lesson_progress row; that transition is protected by the row's optimistic lock and unique
+ * (user_id, lesson_id) key, which is what keeps repeated completions from double counting.
+ * Full recounts are left to the explicit repair path.
+ */
+@Slf4j
+@Component
+public class CourseProgressCounter {
+
+    // The denominator never drops below the counter, so a stale lesson count cannot exceed 100%.
+    // The locked sub-select hands back the row as it was, for the course rollup delta
+    private static final String INCREMENT_SQL = """
+            UPDATE enrollments e
+            SET lessons_completed = e.lessons_completed + 1,
+                progress_percentage = LEAST(100, ROUND((e.lessons_completed + 1) * 100.0
+                                                       / GREATEST(?, e.lessons_completed + 1), 2)),
+                last_accessed_at = ?,
+                updated_at = ?,
+                version = COALESCE(e.version, 0) + 1
+            FROM (SELECT id, status, progress_percentage FROM enrollments
+                  WHERE student_id = ? AND course_id = ?
+                  FOR UPDATE) previous
+            WHERE e.id = previous.id
+            RETURNING e.lessons_completed, previous.status, previous.progress_percentage,
+                      e.status, e.progress_percentage
+            """;
+
+    private static final String COMPLETE_SQL = """
+            UPDATE enrollments
+            SET status = 'COMPLETED',
+                completed_at = ?,
+                progress_percentage = 100.00,
+                updated_at = ?,
+                version = COALESCE(version, 0) + 1
+            WHERE student_id = ? AND course_id = ? AND status <> 'COMPLETED'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CourseLessonCountCache lessonCountCache;
+    private final CourseProgressRollups progressRollups;
+
+    public CourseProgressCounter(JdbcTemplate jdbcTemplate, CourseLessonCountCache lessonCountCache,
+                                 CourseProgressRollups progressRollups) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lessonCountCache = lessonCountCache;
+        this.progressRollups = progressRollups;
+    }
+
+    /**
+     * Count one newly completed lesson; returns true if this completion finished the course
+     */
+    public boolean recordLessonCompleted(UUID userId, UUID courseId) {
+        long totalLessons = lessonCountCache.getLessonCount(courseId);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Increment> updated = jdbcTemplate.query(INCREMENT_SQL, (rs, rowNum) -> new Increment(rs.getInt(1),
+                        EnrollmentState.of(rs.getString(2), rs.getBigDecimal(3)),
+                        EnrollmentState.of(rs.getString(4), rs.getBigDecimal(5))),
+                totalLessons, now, now, userId, courseId);
+        if (updated.isEmpty()) {
+            throw new ResourceNotFoundException("Enrollment not found");
+        }
+
+        Increment increment = updated.get(0);
+        int lessonsCompleted = increment.lessonsCompleted();
+        log.debug("User {} has completed {}/{} lessons of course {}", userId, lessonsCompleted, totalLessons, courseId);
+        if (totalLessons == 0 || lessonsCompleted < totalLessons) {
+            progressRollups.enrollmentChanged(courseId, increment.before(), increment.after());
+            return false;
+        }
+
+        // Only the request that flips the status reports the course as finished
+        boolean completed = jdbcTemplate.update(COMPLETE_SQL, now, now, userId, courseId) == 1;
+        progressRollups.enrollmentChanged(courseId, increment.before(), completed
+                ? new EnrollmentState(EnrollmentStatus.COMPLETED, BigDecimal.valueOf(100))
+                : increment.after());
+        return completed;
+    }
+
+    private record Increment(int lessonsCompleted, EnrollmentState before, EnrollmentState after) {
+    }
+}
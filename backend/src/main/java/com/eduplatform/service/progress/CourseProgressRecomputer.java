@@ -0,0 +1,231 @@
+package com.eduplatform.service.progress;
+
+import com.eduplatform.model.enums.LearningEventType;
+import com.eduplatform.model.enums.OutboxEventType;
+import com.eduplatform.service.activity.ActivityFeed;
+import com.eduplatform.service.outbox.OutboxPayloads;
+import com.eduplatform.service.outbox.OutboxPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Course Progress Recomputer
+ * Brings every enrollment of a course back in line after its lessons change. Instead of a
+ * per-student recount, each chunk of enrollment ids is recomputed by one UPDATE joined with
+ * the aggregated lesson_progress of those students; chunks are separate transactions so no lock
+ * is held for the whole course. Enrollments that the change completes are promoted and their
+ * students notified through the outbox, one batch per chunk, in the chunk's transaction;
+ * completed enrollments are never demoted.
+ */
+@Slf4j
+@Component
+public class CourseProgressRecomputer {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private static final String RECOMPUTE_SQL = """
+            WITH totals AS (
+                SELECT COUNT(*) AS lessons FROM lessons WHERE course_id = ?
+            ), stats AS (
+                SELECT e.id, e.status AS previous_status,
+                       COUNT(lp.id) FILTER (WHERE lp.status = 'COMPLETED') AS completed
+                FROM enrollments e
+                LEFT JOIN lesson_progress lp ON lp.user_id = e.student_id
+                    AND lp.lesson_id IN (SELECT id FROM lessons WHERE course_id = e.course_id)
+                WHERE e.course_id = ? AND e.id > ? AND e.id <= ?
+                GROUP BY e.id, e.status
+            )
+            UPDATE enrollments e
+            SET lessons_completed = stats.completed,
+                progress_percentage = CASE
+                    WHEN e.status = 'COMPLETED' THEN e.progress_percentage
+                    WHEN totals.lessons > 0 AND stats.completed >= totals.lessons AND e.status = 'ACTIVE' THEN 100.00
+                    WHEN totals.lessons = 0 THEN 0
+                    ELSE LEAST(100, ROUND(stats.completed * 100.0 / totals.lessons, 2)) END,
+                status = CASE
+                    WHEN e.status = 'ACTIVE' AND totals.lessons > 0 AND stats.completed >= totals.lessons THEN 'COMPLETED'
+                    ELSE e.status END,
+                completed_at = CASE
+                    WHEN e.status = 'ACTIVE' AND totals.lessons > 0 AND stats.completed >= totals.lessons THEN now()
+                    ELSE e.completed_at END,
+                updated_at = now(),
+                version = COALESCE(e.version, 0) + 1
+            FROM stats, totals
+            WHERE e.id = stats.id
+              AND (e.lessons_completed <> stats.completed
+                   OR (e.status = 'ACTIVE' AND totals.lessons > 0 AND stats.completed >= totals.lessons)
+                   OR (e.status <> 'COMPLETED' AND e.progress_percentage IS DISTINCT FROM
+                       CASE WHEN totals.lessons = 0 THEN 0
+                            ELSE LEAST(100, ROUND(stats.completed * 100.0 / totals.lessons, 2)) END))
+            RETURNING e.student_id, stats.previous_status, e.status
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxPublisher outboxPublisher;
+    private final CourseProgressRollups progressRollups;
+    private final LearningEventAppender learningEvents;
+    private final ActivityFeed activityFeed;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Status> statuses = new ConcurrentHashMap<>();
+
+    public CourseProgressRecomputer(JdbcTemplate jdbcTemplate, OutboxPublisher outboxPublisher,
+                                    CourseProgressRollups progressRollups, LearningEventAppender learningEvents,
+                                    ActivityFeed activityFeed, ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxPublisher = outboxPublisher;
+        this.progressRollups = progressRollups;
+        this.learningEvents = learningEvents;
+        this.activityFeed = activityFeed;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs after the lesson change commits (or immediately when there is none)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseStructureChanged(CourseStructureChangedEvent event) {
+        schedule(event.courseId());
+    }
+
+    /**
+     * Queue a course; several changes before the next pass collapse into one recompute
+     */
+    public void schedule(UUID courseId) {
+        if (pending.add(courseId)) {
+            statuses.compute(courseId, (id, current) ->
+                    current != null && "RUNNING".equals(current.state()) ? current : Status.queued(id));
+        }
+    }
+
+    public Optional<Status> getStatus(UUID courseId) {
+        return Optional.ofNullable(statuses.get(courseId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.progress.recompute.interval-ms:5000}")
+    public void runPending() {
+        for (UUID courseId : List.copyOf(pending)) {
+            if (pending.remove(courseId)) {
+                recompute(courseId);
+            }
+        }
+    }
+
+    private void recompute(UUID courseId) {
+        long started = System.currentTimeMillis();
+        Integer total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM enrollments WHERE course_id = ?", Integer.class, courseId);
+        Status status = Status.queued(courseId).running(total != null ? total : 0);
+        statuses.put(courseId, status);
+
+        List<UUID> completedStudents = new ArrayList<>();
+        UUID lastId = MIN_UUID;
+        int processed = 0;
+        int changed = 0;
+        try {
+            while (true) {
+                List<Map<String, Object>> page = jdbcTemplate.queryForList(
+                        "SELECT id, student_id FROM enrollments WHERE course_id = ? AND id > ? ORDER BY id LIMIT ?",
+                        courseId, lastId, CHUNK_SIZE);
+                if (page.isEmpty()) {
+                    break;
+                }
+                UUID pageEnd = (UUID) page.get(page.size() - 1).get("id");
+
+                // The chunk's update, its outbox row and its events commit or roll back together
+                UUID chunkStart = lastId;
+                List<Changed> rows = transactionTemplate.execute(tx -> recomputeChunk(courseId, page, chunkStart, pageEnd));
+                changed += rows.size();
+                rows.stream().filter(Changed::completed).map(Changed::studentId).forEach(completedStudents::add);
+
+                processed += page.size();
+                lastId = pageEnd;
+                status = status.progress(processed, changed, completedStudents.size());
+                statuses.put(courseId, status);
+            }
+
+            // Completion counts and average progress both moved, so rebuild the course rollup from source
+            progressRollups.reconcileCourse(courseId);
+            statuses.put(courseId, status.finished(null));
+            log.info("Recomputed progress for course {}: {} enrollment(s), {} changed, {} completed in {} ms",
+                    courseId, processed, changed, completedStudents.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            // Chunks already written stay; a rerun starts over, which is safe as the update is idempotent
+            log.error("Progress recompute failed for course {} after {} enrollment(s): {}",
+                    courseId, processed, e.getMessage(), e);
+            statuses.put(courseId, status.finished(e.getMessage()));
+        }
+    }
+
+    /**
+     * One statement per chunk: locks are held only for the rows of this chunk
+     */
+    private List<Changed> recomputeChunk(UUID courseId, List<Map<String, Object>> page, UUID from, UUID to) {
+        List<Changed> rows = jdbcTemplate.query(RECOMPUTE_SQL, (rs, rowNum) -> new Changed(
+                        rs.getObject(1, UUID.class),
+                        !"COMPLETED".equals(rs.getString(2)) && "COMPLETED".equals(rs.getString(3))),
+                courseId, courseId, from, to);
+        List<UUID> chunkCompleted = rows.stream().filter(Changed::completed).map(Changed::studentId).toList();
+        if (!chunkCompleted.isEmpty()) {
+            // One outbox row (one notification batch) per chunk of newly completed students
+            outboxPublisher.publish(OutboxEventType.COURSE_COMPLETION_NOTIFICATIONS,
+                    new OutboxPayloads.CourseMembers(courseId, chunkCompleted));
+            chunkCompleted.forEach(studentId ->
+                    learningEvents.append(studentId, courseId, null, LearningEventType.COURSE_COMPLETED, 0));
+            activityFeed.record(LearningEventType.COURSE_COMPLETED, courseId, chunkCompleted);
+        }
+
+        // total_lessons changed for every student, whether or not the enrollment row did
+        page.forEach(row -> eventPublisher.publishEvent(
+                new LessonProgressChangedEvent((UUID) row.get("student_id"), courseId, null)));
+        return rows;
+    }
+
+    private record Changed(UUID studentId, boolean completed) {
+    }
+
+    /**
+     * Progress of the latest recompute of a course
+     */
+    public record Status(UUID courseId, String state, int totalEnrollments, int processed, int changed,
+                         int completed, Instant startedAt, Instant finishedAt, String error) {
+
+        static Status queued(UUID courseId) {
+            return new Status(courseId, "QUEUED", 0, 0, 0, 0, null, null, null);
+        }
+
+        Status running(int totalEnrollments) {
+            return new Status(courseId, "RUNNING", totalEnrollments, 0, 0, 0, Instant.now(), null, null);
+        }
+
+        Status progress(int processed, int changed, int completed) {
+            return new Status(courseId, state, totalEnrollments, processed, changed, completed, startedAt, null, null);
+        }
+
+        Status finished(String error) {
+            return new Status(courseId, error == null ? "FINISHED" : "FAILED", totalEnrollments, processed,
+                    changed, completed, startedAt, Instant.now(), error);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.eduplatform.service.progress;
+
+import com.eduplatform.model.Enrollment;
+import com.eduplatform.model.enums.EnrollmentStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Course Progress Rollups
+ * Pre-aggregated per-(course, lesson) funnel rows (started, completed, time, score) and per-course
+ * student totals for instructor dashboards, so a summary is one indexed read however many
+ * students a course has. Progress writes record deltas after they commit; deltas are coalesced
+ * in memory and added to the rollup rows in one batch every few seconds, which keeps popular
+ * lessons and courses from becoming a hot row in every student's transaction. Each enrollment
+ * write reports its own state before and after (see enrollmentChanged), and the course delta is
+ * the difference of that enrollment's contributions to the totals, so enrolling, dropping,
+ * progressing and completing all move every total consistently. An hourly reconciliation
+ * recomputes the rows touched since the previous run from the source tables, correcting deltas
+ * lost on a node restart.
+ */
+@Slf4j
+@Component
+public class CourseProgressRollups {
+
+    private static final Duration RECONCILE_OVERLAP = Duration.ofMinutes(10);
+
+    private static final String APPLY_LESSON_DELTAS_SQL = """
+            INSERT INTO course_lesson_rollups (course_id, lesson_id, started_count, completed_count,
+                                               time_spent_seconds, score_sum, score_count, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (course_id, lesson_id) DO UPDATE SET
+                started_count = GREATEST(0, course_lesson_rollups.started_count + EXCLUDED.started_count),
+                completed_count = GREATEST(0, course_lesson_rollups.completed_count + EXCLUDED.completed_count),
+                time_spent_seconds = course_lesson_rollups.time_spent_seconds + EXCLUDED.time_spent_seconds,
+                score_sum = course_lesson_rollups.score_sum + EXCLUDED.score_sum,
+                score_count = course_lesson_rollups.score_count + EXCLUDED.score_count,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String APPLY_COURSE_DELTAS_SQL = """
+            INSERT INTO course_progress_rollups (course_id, total_students, students_in_progress,
+                                                 students_completed, progress_sum, updated_at)
+            VALUES (?, GREATEST(0, ?), GREATEST(0, ?), GREATEST(0, ?), GREATEST(0, ?), now())
+            ON CONFLICT (course_id) DO UPDATE SET
+                total_students = GREATEST(0, course_progress_rollups.total_students + ?),
+                students_in_progress = GREATEST(0, course_progress_rollups.students_in_progress + ?),
+                students_completed = GREATEST(0, course_progress_rollups.students_completed + ?),
+                progress_sum = GREATEST(0, course_progress_rollups.progress_sum + ?),
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String RECONCILE_LESSONS_TEMPLATE = """
+            INSERT INTO course_lesson_rollups (course_id, lesson_id, started_count, completed_count,
+                                               time_spent_seconds, score_sum, score_count, updated_at)
+            SELECT l.course_id, l.id,
+                   COUNT(lp.id) FILTER (WHERE lp.status <> 'NOT_STARTED'),
+                   COUNT(lp.id) FILTER (WHERE lp.status = 'COMPLETED'),
+                   COALESCE(SUM(lp.time_spent_seconds), 0),
+                   COALESCE(SUM(lp.score) FILTER (WHERE lp.status = 'COMPLETED'), 0),
+                   COUNT(lp.score) FILTER (WHERE lp.status = 'COMPLETED'),
+                   now()
+            FROM lessons l
+            LEFT JOIN lesson_progress lp ON lp.lesson_id = l.id
+            WHERE %s
+            GROUP BY l.course_id, l.id
+            ON CONFLICT (course_id, lesson_id) DO UPDATE SET
+                started_count = EXCLUDED.started_count,
+                completed_count = EXCLUDED.completed_count,
+                time_spent_seconds = EXCLUDED.time_spent_seconds,
+                score_sum = EXCLUDED.score_sum,
+                score_count = EXCLUDED.score_count,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String RECONCILE_COURSES_TEMPLATE = """
+            INSERT INTO course_progress_rollups (course_id, total_students, students_in_progress,
+                                                 students_completed, progress_sum, reconciled_at, updated_at)
+            SELECT e.course_id,
+                   COUNT(*) FILTER (WHERE e.status <> 'DROPPED'),
+                   COUNT(*) FILTER (WHERE e.status = 'ACTIVE' AND e.progress_percentage > 0),
+                   COUNT(*) FILTER (WHERE e.status = 'COMPLETED'),
+                   COALESCE(SUM(e.progress_percentage) FILTER (WHERE e.status <> 'DROPPED'), 0),
+                   now(), now()
+            FROM enrollments e
+            WHERE %s
+            GROUP BY e.course_id
+            ON CONFLICT (course_id) DO UPDATE SET
+                total_students = EXCLUDED.total_students,
+                students_in_progress = EXCLUDED.students_in_progress,
+                students_completed = EXCLUDED.students_completed,
+                progress_sum = EXCLUDED.progress_sum,
+                reconciled_at = EXCLUDED.reconciled_at,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String RECONCILE_CHANGED_LESSONS_SQL = RECONCILE_LESSONS_TEMPLATE.formatted(
+            "l.id IN (SELECT DISTINCT lesson_id FROM lesson_progress WHERE updated_at >= ?)");
+    private static final String RECONCILE_CHANGED_COURSES_SQL = RECONCILE_COURSES_TEMPLATE.formatted(
+            "e.course_id IN (SELECT DISTINCT course_id FROM enrollments WHERE updated_at >= ?)");
+    private static final String RECONCILE_COURSE_LESSONS_SQL = RECONCILE_LESSONS_TEMPLATE.formatted("l.course_id = ?");
+    private static final String RECONCILE_COURSE_SQL = RECONCILE_COURSES_TEMPLATE.formatted("e.course_id = ?");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<LessonKey, LessonDelta> lessonDeltas = new ConcurrentHashMap<>();
+    private final Map<UUID, CourseDelta> courseDeltas = new ConcurrentHashMap<>();
+    private volatile Instant lastReconciledAt = Instant.now().minus(Duration.ofHours(1));
+
+    public CourseProgressRollups(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void lessonStarted(UUID courseId, UUID lessonId) {
+        recordLesson(courseId, lessonId, new LessonDelta(1, 0, 0, 0, 0));
+    }
+
+    public void lessonCompleted(UUID courseId, UUID lessonId, Double score) {
+        recordLesson(courseId, lessonId, new LessonDelta(0, 1, 0, score != null ? score : 0, score != null ? 1 : 0));
+    }
+
+    public void timeSpent(UUID courseId, UUID lessonId, long seconds) {
+        if (seconds > 0) {
+            recordLesson(courseId, lessonId, new LessonDelta(0, 0, seconds, 0, 0));
+        }
+    }
+
+    /**
+     * New enrollments (ACTIVE, no progress yet)
+     */
+    public void studentsEnrolled(UUID courseId, int count) {
+        if (count > 0) {
+            recordCourse(courseId, CourseDelta.of(EnrollmentState.ENROLLED).times(count));
+        }
+    }
+
+    /**
+     * One enrollment moved from before to after (null = did not exist / no longer exists); the
+     * course totals move by the difference of its two contributions
+     */
+    public void enrollmentChanged(UUID courseId, EnrollmentState before, EnrollmentState after) {
+        CourseDelta delta = CourseDelta.of(after).minus(CourseDelta.of(before));
+        if (!delta.isZero()) {
+            recordCourse(courseId, delta);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.progress.rollups.flush-interval-ms:5000}")
+    public void flush() {
+        List<Object[]> lessonArgs = new ArrayList<>();
+        for (Map.Entry<LessonKey, LessonDelta> entry : lessonDeltas.entrySet()) {
+            if (lessonDeltas.remove(entry.getKey(), entry.getValue())) {
+                LessonDelta delta = entry.getValue();
+                lessonArgs.add(new Object[]{entry.getKey().courseId(), entry.getKey().lessonId(), delta.started(),
+                        delta.completed(), delta.timeSpentSeconds(), delta.scoreSum(), delta.scoreCount()});
+            }
+        }
+        List<Object[]> courseArgs = new ArrayList<>();
+        for (Map.Entry<UUID, CourseDelta> entry : courseDeltas.entrySet()) {
+            if (courseDeltas.remove(entry.getKey(), entry.getValue())) {
+                CourseDelta delta = entry.getValue();
+                courseArgs.add(new Object[]{entry.getKey(),
+                        delta.students(), delta.inProgress(), delta.completed(), delta.progressSum(),
+                        delta.students(), delta.inProgress(), delta.completed(), delta.progressSum()});
+            }
+        }
+
+        try {
+            if (!lessonArgs.isEmpty()) {
+                jdbcTemplate.batchUpdate(APPLY_LESSON_DELTAS_SQL, lessonArgs);
+            }
+            if (!courseArgs.isEmpty()) {
+                jdbcTemplate.batchUpdate(APPLY_COURSE_DELTAS_SQL, courseArgs);
+            }
+        } catch (Exception e) {
+            // Dropped deltas are corrected by the next reconciliation
+            log.warn("Failed to apply {} lesson / {} course rollup delta(s): {}",
+                    lessonArgs.size(), courseArgs.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Recompute rollups for lessons and courses with activity since the previous run
+     */
+    @Scheduled(cron = "${app.progress.rollups.reconcile-cron:0 5 * * * *}")
+    public void reconcile() {
+        Instant startedAt = Instant.now();
+        Timestamp since = Timestamp.from(lastReconciledAt.minus(RECONCILE_OVERLAP));
+        try {
+            int lessons = jdbcTemplate.update(RECONCILE_CHANGED_LESSONS_SQL, since);
+            int courses = jdbcTemplate.update(RECONCILE_CHANGED_COURSES_SQL, since);
+            lastReconciledAt = startedAt;
+            log.info("Reconciled progress rollups for {} lesson(s) and {} course(s) in {} ms",
+                    lessons, courses, Duration.between(startedAt, Instant.now()).toMillis());
+        } catch (Exception e) {
+            log.error("Progress rollup reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recompute one course from scratch (first read of a course, or after structural changes)
+     */
+    public void reconcileCourse(UUID courseId) {
+        jdbcTemplate.update(RECONCILE_COURSE_LESSONS_SQL, courseId);
+        jdbcTemplate.update(RECONCILE_COURSE_SQL, courseId);
+    }
+
+    public Optional<CourseTotals> findCourseTotals(UUID courseId) {
+        return jdbcTemplate.query("""
+                        SELECT total_students, students_in_progress, students_completed, progress_sum
+                        FROM course_progress_rollups
+                        WHERE course_id = ?
+                        """,
+                (rs, rowNum) -> new CourseTotals(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4)),
+                courseId).stream().findFirst();
+    }
+
+    /**
+     * Funnel rows for every lesson of a course, in lesson order (zeros for lessons without activity)
+     */
+    public List<LessonFunnel> findLessonFunnel(UUID courseId) {
+        return jdbcTemplate.query("""
+                        SELECT l.id, l.title, l.sort_order,
+                               COALESCE(r.started_count, 0), COALESCE(r.completed_count, 0),
+                               COALESCE(r.time_spent_seconds, 0), COALESCE(r.score_sum, 0), COALESCE(r.score_count, 0)
+                        FROM lessons l
+                        LEFT JOIN course_lesson_rollups r ON r.course_id = l.course_id AND r.lesson_id = l.id
+                        WHERE l.course_id = ? AND l.deleted_at IS NULL
+                        ORDER BY l.sort_order
+                        """,
+                (rs, rowNum) -> new LessonFunnel(rs.getObject(1, UUID.class), rs.getString(2), rs.getInt(3),
+                        rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getDouble(7), rs.getLong(8)),
+                courseId);
+    }
+
+    private void recordLesson(UUID courseId, UUID lessonId, LessonDelta delta) {
+        afterCommit(() -> lessonDeltas.merge(new LessonKey(courseId, lessonId), delta, LessonDelta::plus));
+    }
+
+    private void recordCourse(UUID courseId, CourseDelta delta) {
+        afterCommit(() -> courseDeltas.merge(courseId, delta, CourseDelta::plus));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record LessonKey(UUID courseId, UUID lessonId) {
+    }
+
+    private record LessonDelta(long started, long completed, long timeSpentSeconds, double scoreSum, long scoreCount) {
+
+        LessonDelta plus(LessonDelta other) {
+            return new LessonDelta(started + other.started, completed + other.completed,
+                    timeSpentSeconds + other.timeSpentSeconds, scoreSum + other.scoreSum,
+                    scoreCount + other.scoreCount);
+        }
+    }
+
+    /**
+     * What one enrollment contributes to its course totals
+     */
+    public record EnrollmentState(EnrollmentStatus status, BigDecimal progressPercentage) {
+
+        static final EnrollmentState ENROLLED = new EnrollmentState(EnrollmentStatus.ACTIVE, BigDecimal.ZERO);
+
+        public static EnrollmentState of(Enrollment enrollment) {
+            return new EnrollmentState(enrollment.getStatus(), enrollment.getProgressPercentage());
+        }
+
+        /**
+         * From a status column and percentage read with JDBC
+         */
+        public static EnrollmentState of(String status, BigDecimal progressPercentage) {
+            return new EnrollmentState(EnrollmentStatus.valueOf(status), progressPercentage);
+        }
+    }
+
+    private record CourseDelta(long students, long inProgress, long completed, BigDecimal progressSum) {
+
+        static final CourseDelta ZERO = new CourseDelta(0, 0, 0, BigDecimal.ZERO);
+
+        // Mirrors RECONCILE_COURSES_TEMPLATE: dropped enrollments count for nothing
+        static CourseDelta of(EnrollmentState state) {
+            if (state == null || state.status() == EnrollmentStatus.DROPPED) {
+                return ZERO;
+            }
+            BigDecimal progress = state.progressPercentage() != null ? state.progressPercentage() : BigDecimal.ZERO;
+            return new CourseDelta(1,
+                    state.status() == EnrollmentStatus.ACTIVE && progress.signum() > 0 ? 1 : 0,
+                    state.status() == EnrollmentStatus.COMPLETED ? 1 : 0,
+                    progress);
+        }
+
+        CourseDelta plus(CourseDelta other) {
+            return new CourseDelta(students + other.students, inProgress + other.inProgress,
+                    completed + other.completed, progressSum.add(other.progressSum));
+        }
+
+        CourseDelta minus(CourseDelta other) {
+            return new CourseDelta(students - other.students, inProgress - other.inProgress,
+                    completed - other.completed, progressSum.subtract(other.progressSum));
+        }
+
+        CourseDelta times(int count) {
+            return new CourseDelta(students * count, inProgress * count, completed * count,
+                    progressSum.multiply(BigDecimal.valueOf(count)));
+        }
+
+        boolean isZero() {
+            return students == 0 && inProgress == 0 && completed == 0 && progressSum.signum() == 0;
+        }
+    }
+
+    public record CourseTotals(long totalStudents, long studentsInProgress, long studentsCompleted,
+                               BigDecimal progressSum) {
+    }
+
+    public record LessonFunnel(UUID lessonId, String title, int sortOrder, long started, long completed,
+                               long timeSpentSeconds, double scoreSum, long scoreCount) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.eduplatform.service.progress;
+
+import java.util.UUID;
+
+/**
+ * Published when lessons are added to or removed from a course, which changes the progress
+ * denominator of every enrollment in it.
+ */
+public record CourseStructureChangedEvent(UUID courseId) {
+}
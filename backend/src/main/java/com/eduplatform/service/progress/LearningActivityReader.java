@@ -0,0 +1,74 @@
+package com.eduplatform.service.progress;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Learning Activity Reader
+ * Read queries for per-user learning analytics. Activity comes from learning_events and is
+ * always bounded by an occurred_at range so only the partitions covering that range are
+ * scanned; course totals come from the user_progress read model.
+ */
+@Component
+public class LearningActivityReader {
+
+    private static final String DAILY_ACTIVITY_SQL = """
+            SELECT (occurred_at AT TIME ZONE ?)::date AS day,
+                   COALESCE(SUM(time_spent_seconds), 0) AS time_spent_seconds,
+                   COUNT(*) AS events,
+                   MAX(occurred_at) AS last_occurred_at
+            FROM learning_events
+            WHERE user_id = ? AND occurred_at >= ? AND occurred_at < ?
+            GROUP BY 1
+            ORDER BY 1
+            """;
+
+    private static final String TOTALS_SQL = """
+            SELECT COUNT(*) AS courses,
+                   COUNT(*) FILTER (WHERE status = 'COMPLETED') AS completed,
+                   COALESCE(SUM(lessons_completed), 0) AS lessons_completed,
+                   COALESCE(SUM(total_time_spent), 0) AS time_spent_minutes
+            FROM user_progress
+            WHERE user_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LearningActivityReader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Activity per calendar day (in the given zone) for events in [from, to)
+     */
+    public List<DailyActivity> findDailyActivity(UUID userId, ZoneId zone, Instant from, Instant to) {
+        return jdbcTemplate.query(DAILY_ACTIVITY_SQL, (rs, rowNum) -> new DailyActivity(
+                        rs.getObject("day", LocalDate.class),
+                        rs.getLong("time_spent_seconds"),
+                        rs.getLong("events"),
+                        rs.getTimestamp("last_occurred_at").toInstant()),
+                zone.getId(), userId, Timestamp.from(from), Timestamp.from(to));
+    }
+
+    public UserTotals findUserTotals(UUID userId) {
+        return jdbcTemplate.queryForObject(TOTALS_SQL, (rs, rowNum) -> new UserTotals(
+                rs.getLong("courses"),
+                rs.getLong("completed"),
+                rs.getLong("lessons_completed"),
+                rs.getLong("time_spent_minutes")), userId);
+    }
+
+    public record DailyActivity(LocalDate day, long timeSpentSeconds, long events, Instant lastOccurredAt) {
+    }
+
+    public record UserTotals(long coursesEnrolled, long coursesCompleted, long lessonsCompleted,
+                             long timeSpentMinutes) {
+    }
+}
@@ -0,0 +1,173 @@
+package com.eduplatform.service.progress;
+
+import com.eduplatform.model.enums.LearningEventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Learning Event Appender
+ * Queues learning_events rows in a bounded in-memory queue and writes them off the request
+ * thread as multi-row inserts (one unnest statement per batch). Events raised inside a
+ * transaction are only queued once it commits. When the queue is full new events are dropped
+ * and counted rather than blocking the caller: the log feeds analytics, not progress state.
+ */
+@Slf4j
+@Component
+public class LearningEventAppender {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO learning_events (user_id, course_id, lesson_id, event_type,
+                                         time_spent_seconds, video_position_seconds, occurred_at)
+            SELECT *
+            FROM unnest(?::uuid[], ?::uuid[], ?::uuid[], ?::varchar[], ?::int[], ?::int[], ?::timestamptz[])
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<LearningEvent> queue;
+    private final Counter dropped;
+    private final int retentionMonths;
+
+    public LearningEventAppender(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.progress.learning-events.queue-capacity:100000}") int queueCapacity,
+                                 @Value("${app.progress.learning-events.retention-months:13}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.retentionMonths = retentionMonths;
+        this.dropped = Counter.builder("learning.events.dropped")
+                .description("Learning events dropped because the append queue was full or the write failed")
+                .register(meterRegistry);
+        Gauge.builder("learning.events.queued", queue, BlockingQueue::size)
+                .description("Learning events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    public void append(UUID userId, UUID courseId, UUID lessonId, LearningEventType type,
+                       int timeSpentSeconds, Integer videoPositionSeconds, Instant occurredAt) {
+        LearningEvent event = new LearningEvent(userId, courseId, lessonId, type,
+                Math.max(0, timeSpentSeconds), videoPositionSeconds, occurredAt != null ? occurredAt : Instant.now());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    public void append(UUID userId, UUID courseId, UUID lessonId, LearningEventType type, int timeSpentSeconds) {
+        append(userId, courseId, lessonId, type, timeSpentSeconds, null, null);
+    }
+
+    @Scheduled(fixedDelayString = "${app.progress.learning-events.flush-interval-ms:1000}")
+    public void flush() {
+        List<LearningEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Writing {} queued learning event(s) on shutdown", queue.size());
+        flush();
+    }
+
+    private void enqueue(LearningEvent event) {
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    private void write(List<LearningEvent> batch) {
+        // Clamp timestamps into the partitioned range: no future rows, nothing older than retention
+        Instant now = Instant.now();
+        Instant oldest = LearningEventPartitionManager.retentionStart(LocalDate.now(ZoneOffset.UTC), retentionMonths)
+                .plusDays(1)
+                .atStartOfDay(ZoneOffset.UTC)
+                .toInstant();
+
+        List<LearningEvent> rows = new ArrayList<>(batch.size());
+        for (LearningEvent event : batch) {
+            if (event.occurredAt().isBefore(oldest)) {
+                dropped.increment();
+            } else {
+                rows.add(event.occurredAt().isAfter(now) ? event.at(now) : event);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        int size = rows.size();
+        Object[] userIds = new Object[size];
+        Object[] courseIds = new Object[size];
+        Object[] lessonIds = new Object[size];
+        Object[] types = new Object[size];
+        Object[] timeSpent = new Object[size];
+        Object[] positions = new Object[size];
+        Object[] occurredAt = new Object[size];
+        for (int i = 0; i < size; i++) {
+            LearningEvent event = rows.get(i);
+            userIds[i] = event.userId();
+            courseIds[i] = event.courseId();
+            lessonIds[i] = event.lessonId();
+            types[i] = event.type().name();
+            timeSpent[i] = event.timeSpentSeconds();
+            positions[i] = event.videoPositionSeconds();
+            occurredAt[i] = Timestamp.from(event.occurredAt());
+        }
+
+        try {
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_SQL);
+                ps.setArray(1, con.createArrayOf("uuid", userIds));
+                ps.setArray(2, con.createArrayOf("uuid", courseIds));
+                ps.setArray(3, con.createArrayOf("uuid", lessonIds));
+                ps.setArray(4, con.createArrayOf("varchar", types));
+                ps.setArray(5, con.createArrayOf("int4", timeSpent));
+                ps.setArray(6, con.createArrayOf("int4", positions));
+                ps.setArray(7, con.createArrayOf("timestamptz", occurredAt));
+                return ps;
+            });
+        } catch (Exception e) {
+            dropped.increment(size);
+            log.warn("Failed to write {} learning event(s): {}", size, e.getMessage());
+        }
+    }
+
+    private record LearningEvent(UUID userId, UUID courseId, UUID lessonId, LearningEventType type,
+                                 int timeSpentSeconds, Integer videoPositionSeconds, Instant occurredAt) {
+
+        LearningEvent at(Instant instant) {
+            return new LearningEvent(userId, courseId, lessonId, type, timeSpentSeconds, videoPositionSeconds, instant);
+        }
+    }
+}
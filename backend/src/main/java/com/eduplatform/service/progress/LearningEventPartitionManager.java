@@ -0,0 +1,155 @@
+package com.eduplatform.service.progress;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Learning Event Partition Manager
+ * Keeps the monthly partitions of learning_events in step with the calendar: partitions are
+ * created a few months ahead so inserts never hit a missing range, and partitions entirely
+ * older than the retention window are dropped (a metadata operation, unlike a bulk DELETE).
+ * Runs on startup and daily; an advisory lock keeps concurrent nodes from racing on the DDL.
+ */
+@Slf4j
+@Component
+public class LearningEventPartitionManager {
+
+    private static final String PARENT_TABLE = "learning_events";
+    private static final long ADVISORY_LOCK_KEY = 0x4c45_5041_5254L; // "LEPART"
+    private static final Pattern PARTITION_NAME = Pattern.compile("learning_events_y(\\d{4})m(\\d{2})");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT child.relname
+            FROM pg_inherits i
+            JOIN pg_class parent ON parent.oid = i.inhparent
+            JOIN pg_class child ON child.oid = i.inhrelid
+            WHERE parent.relname = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public LearningEventPartitionManager(JdbcTemplate jdbcTemplate,
+                                         @Value("${app.progress.learning-events.months-ahead:3}") int monthsAhead,
+                                         @Value("${app.progress.learning-events.retention-months:13}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * First day of the oldest month still kept
+     */
+    static LocalDate retentionStart(LocalDate today, int retentionMonths) {
+        return today.withDayOfMonth(1).minusMonths(retentionMonths);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.progress.learning-events.maintenance-cron:0 15 1 * * *}")
+    public void maintain() {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+                if (!tryLock(con)) {
+                    log.debug("Learning event partition maintenance running elsewhere, skipping");
+                    return null;
+                }
+                try {
+                    LocalDate today = LocalDate.now(ZoneOffset.UTC);
+                    createPartitions(con, today);
+                    dropExpiredPartitions(con, today);
+                } finally {
+                    unlock(con);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Learning event partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void createPartitions(Connection con, LocalDate today) throws SQLException {
+        LocalDate month = today.withDayOfMonth(1);
+        try (Statement statement = con.createStatement()) {
+            for (int i = 0; i <= monthsAhead; i++) {
+                LocalDate from = month.plusMonths(i);
+                statement.execute("CREATE TABLE IF NOT EXISTS " + partitionName(from)
+                        + " PARTITION OF " + PARENT_TABLE
+                        + " FOR VALUES FROM ('" + BOUND.format(from) + "') TO ('" + BOUND.format(from.plusMonths(1)) + "')");
+            }
+        }
+    }
+
+    private void dropExpiredPartitions(Connection con, LocalDate today) throws SQLException {
+        LocalDate keepFrom = retentionStart(today, retentionMonths);
+
+        List<String> expired = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement(LIST_PARTITIONS_SQL)) {
+            ps.setString(1, PARENT_TABLE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    Matcher matcher = PARTITION_NAME.matcher(name);
+                    if (!matcher.matches()) {
+                        continue;
+                    }
+                    LocalDate from = LocalDate.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), 1);
+                    if (!from.plusMonths(1).isAfter(keepFrom)) {
+                        expired.add(name);
+                    }
+                }
+            }
+        }
+
+        try (Statement statement = con.createStatement()) {
+            for (String name : expired) {
+                statement.execute("DROP TABLE IF EXISTS " + name);
+                log.info("Dropped expired learning event partition {}", name);
+            }
+        }
+    }
+
+    private static String partitionName(LocalDate month) {
+        return "%s_y%04dm%02d".formatted(PARENT_TABLE, month.getYear(), month.getMonthValue());
+    }
+
+    private static boolean tryLock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            ps.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static void unlock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            ps.setLong(1, ADVISORY_LOCK_KEY);
+            ps.execute();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.eduplatform.service.progress;
+
+import java.util.UUID;
+
+/**
+ * Published when a user's lesson progress in a course has been written.
+ * lessonId is null when the whole course progress was recounted.
+ */
+public record LessonProgressChangedEvent(UUID userId, UUID courseId, UUID lessonId) {
+}
@@ -0,0 +1,244 @@
+package com.eduplatform.service.progress;
+
+import com.eduplatform.exception.ResourceNotFoundException;
+import com.eduplatform.repository.LessonRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lesson Progress Heartbeat Buffer
+ * Write-behind ingestion for video player heartbeats. Heartbeats are coalesced in memory per
+ * (user, lesson), keeping the furthest video position and summing time spent, and flushed to
+ * lesson_progress as batched upserts every few seconds instead of four queries per heartbeat.
+ * Completions do not go through the buffer; they drain the pending heartbeat for their lesson
+ * and are written synchronously, and a rollback of that write puts the heartbeat back.
+ */
+@Slf4j
+@Component
+public class LessonProgressHeartbeatBuffer {
+
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    // One statement per chunk; RETURNING reports which rows were created (lessons newly started)
+    private static final String UPSERT_SQL = """
+            INSERT INTO lesson_progress (id, user_id, lesson_id, status, started_at,
+                                         time_spent_seconds, video_position_seconds, attempts,
+                                         created_at, updated_at, version)
+            SELECT gen_random_uuid(), b.user_id, b.lesson_id, 'IN_PROGRESS', b.started_at,
+                   b.time_spent, b.video_position, 0, now(), now(), 0
+            FROM unnest(?::uuid[], ?::uuid[], ?::timestamp[], ?::int[], ?::int[])
+                 AS b(user_id, lesson_id, started_at, time_spent, video_position)
+            ON CONFLICT (user_id, lesson_id) DO UPDATE SET
+                time_spent_seconds = COALESCE(lesson_progress.time_spent_seconds, 0) + EXCLUDED.time_spent_seconds,
+                video_position_seconds = GREATEST(COALESCE(lesson_progress.video_position_seconds, 0),
+                                                  EXCLUDED.video_position_seconds),
+                status = CASE WHEN lesson_progress.status = 'NOT_STARTED' THEN 'IN_PROGRESS'
+                              ELSE lesson_progress.status END,
+                started_at = COALESCE(lesson_progress.started_at, EXCLUDED.started_at),
+                updated_at = EXCLUDED.updated_at,
+                version = COALESCE(lesson_progress.version, 0) + 1
+            RETURNING user_id, lesson_id, (xmax = 0) AS inserted
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LessonRepository lessonRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CourseProgressRollups progressRollups;
+
+    private final Map<Key, Heartbeat> pending = new ConcurrentHashMap<>();
+    private final Cache<UUID, UUID> lessonCourses = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    public LessonProgressHeartbeatBuffer(JdbcTemplate jdbcTemplate, LessonRepository lessonRepository,
+                                         ApplicationEventPublisher eventPublisher,
+                                         CourseProgressRollups progressRollups) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lessonRepository = lessonRepository;
+        this.eventPublisher = eventPublisher;
+        this.progressRollups = progressRollups;
+    }
+
+    /**
+     * Course of a lesson, from the lesson -> course cache
+     */
+    public UUID findCourseId(UUID lessonId) {
+        // Unknown lessons are not cached (the loader returns null), so they are looked up again
+        UUID courseId = lessonCourses.get(lessonId, id -> lessonRepository.findCourseIdById(id).orElse(null));
+        if (courseId == null) {
+            throw new ResourceNotFoundException("Lesson", "id", lessonId);
+        }
+        return courseId;
+    }
+
+    /**
+     * Accept a heartbeat for later flushing; courseId is the lesson's course (see findCourseId)
+     */
+    public void record(UUID userId, UUID lessonId, UUID courseId, Integer videoPositionSeconds, Integer timeSpentSeconds) {
+        Heartbeat heartbeat = new Heartbeat(
+                courseId,
+                videoPositionSeconds != null ? videoPositionSeconds : 0,
+                timeSpentSeconds != null ? timeSpentSeconds : 0,
+                LocalDateTime.now());
+        pending.merge(new Key(userId, lessonId), heartbeat, Heartbeat::merge);
+    }
+
+    /**
+     * Remove and return the pending heartbeat for one lesson (used by the synchronous completion
+     * path); it is merged back if the surrounding transaction rolls back
+     */
+    public Optional<Heartbeat> drain(UUID userId, UUID lessonId) {
+        Key key = new Key(userId, lessonId);
+        Heartbeat drained = pending.remove(key);
+        if (drained != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        pending.merge(key, drained, Heartbeat::merge);
+                    }
+                }
+            });
+        }
+        return Optional.ofNullable(drained);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.progress.heartbeat.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Detach entries one by one; an entry updated concurrently stays for the next flush
+        List<Map.Entry<Key, Heartbeat>> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<Key, Heartbeat> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        for (int from = 0; from < batch.size(); from += FLUSH_CHUNK_SIZE) {
+            List<Map.Entry<Key, Heartbeat>> chunk = batch.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, batch.size()));
+            try {
+                write(chunk);
+                log.debug("Flushed {} lesson progress heartbeat(s)", chunk.size());
+            } catch (Exception e) {
+                log.warn("Batched heartbeat flush failed for {} row(s), retrying row by row: {}",
+                        chunk.size(), e.getMessage());
+                flushRowByRow(chunk);
+            }
+        }
+    }
+
+    /**
+     * Flush whatever is left before the datasource goes away
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing {} pending lesson progress heartbeats on shutdown", pending.size());
+        flush();
+    }
+
+    private void flushRowByRow(List<Map.Entry<Key, Heartbeat>> chunk) {
+        for (Map.Entry<Key, Heartbeat> entry : chunk) {
+            try {
+                write(List.of(entry));
+            } catch (Exception e) {
+                // A deleted user or lesson cannot be written; anything else is retried next flush
+                if (e instanceof DataIntegrityViolationException) {
+                    log.warn("Dropping heartbeat for user {} lesson {}: {}",
+                            entry.getKey().userId(), entry.getKey().lessonId(), e.getMessage());
+                } else {
+                    pending.merge(entry.getKey(), entry.getValue(), Heartbeat::merge);
+                }
+            }
+        }
+    }
+
+    private void write(List<Map.Entry<Key, Heartbeat>> chunk) {
+        int size = chunk.size();
+        Object[] userIds = new Object[size];
+        Object[] lessonIds = new Object[size];
+        Object[] startedAt = new Object[size];
+        Object[] timeSpent = new Object[size];
+        Object[] positions = new Object[size];
+        for (int i = 0; i < size; i++) {
+            Map.Entry<Key, Heartbeat> entry = chunk.get(i);
+            userIds[i] = entry.getKey().userId();
+            lessonIds[i] = entry.getKey().lessonId();
+            startedAt[i] = Timestamp.valueOf(entry.getValue().firstSeenAt());
+            timeSpent[i] = entry.getValue().timeSpentSeconds();
+            positions[i] = entry.getValue().maxVideoPositionSeconds();
+        }
+
+        Set<Key> inserted = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", userIds));
+            ps.setArray(2, con.createArrayOf("uuid", lessonIds));
+            ps.setArray(3, con.createArrayOf("timestamp", startedAt));
+            ps.setArray(4, con.createArrayOf("int4", timeSpent));
+            ps.setArray(5, con.createArrayOf("int4", positions));
+            return ps;
+        }, rs -> {
+            if (rs.getBoolean(3)) {
+                inserted.add(new Key(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)));
+            }
+        });
+
+        for (Map.Entry<Key, Heartbeat> entry : chunk) {
+            UUID courseId = entry.getValue().courseId();
+            UUID lessonId = entry.getKey().lessonId();
+            if (inserted.contains(entry.getKey())) {
+                progressRollups.lessonStarted(courseId, lessonId);
+            }
+            progressRollups.timeSpent(courseId, lessonId, entry.getValue().timeSpentSeconds());
+            eventPublisher.publishEvent(new LessonProgressChangedEvent(entry.getKey().userId(), courseId, lessonId));
+        }
+    }
+
+    private record Key(UUID userId, UUID lessonId) {
+    }
+
+    /**
+     * Coalesced heartbeats for one (user, lesson)
+     */
+    public record Heartbeat(UUID courseId, int maxVideoPositionSeconds, int timeSpentSeconds,
+                            LocalDateTime firstSeenAt) {
+
+        Heartbeat merge(Heartbeat other) {
+            return new Heartbeat(
+                    courseId,
+                    Math.max(maxVideoPositionSeconds, other.maxVideoPositionSeconds),
+                    timeSpentSeconds + other.timeSpentSeconds,
+                    firstSeenAt.isBefore(other.firstSeenAt) ? firstSeenAt : other.firstSeenAt);
+        }
+    }
+}
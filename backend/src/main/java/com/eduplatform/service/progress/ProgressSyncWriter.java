@@ -0,0 +1,350 @@
+package com.eduplatform.service.progress;
+
+import com.eduplatform.dto.request.ProgressSyncRequest;
+import com.eduplatform.model.enums.LearningEventType;
+import com.eduplatform.service.enrollment.EnrollmentMembershipIndex;
+import com.eduplatform.service.progress.CourseProgressRollups.EnrollmentState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Progress Sync Writer
+ * Applies a batch of offline progress events with a fixed number of set-based statements,
+ * whatever the batch size: claim idempotency keys, upsert lesson_progress for all touched
+ * lessons, then recount the affected enrollments once. Must run inside the caller's
+ * transaction so keys, progress and totals commit or roll back together.
+ *
+ * Merge rules per lesson: furthest video position wins, time spent is summed, and a
+ * completion is never undone by a later (or earlier-replayed) non-completion.
+ */
+@Slf4j
+@Component
+public class ProgressSyncWriter {
+
+    private static final String RESOLVE_LESSONS_SQL =
+            "SELECT id, course_id FROM lessons WHERE id = ANY(?)";
+
+    private static final String CLAIM_KEYS_SQL = """
+            INSERT INTO progress_sync_keys (user_id, idempotency_key, created_at)
+            SELECT ?, k.idempotency_key, now()
+            FROM unnest(?::varchar[]) AS k(idempotency_key)
+            ON CONFLICT (user_id, idempotency_key) DO NOTHING
+            RETURNING idempotency_key
+            """;
+
+    // previous sees the rows as they were before the upsert (same snapshot), which gives the
+    // started / completed transitions needed for the course rollups
+    private static final String UPSERT_SQL = """
+            WITH previous AS (
+                SELECT lesson_id, status
+                FROM lesson_progress
+                WHERE user_id = ? AND lesson_id = ANY(?)
+                FOR UPDATE
+            ), upserted AS (
+                INSERT INTO lesson_progress (id, user_id, lesson_id, status, started_at, completed_at,
+                                             time_spent_seconds, video_position_seconds, attempts,
+                                             created_at, updated_at, version)
+                SELECT gen_random_uuid(), ?, b.lesson_id,
+                       CASE WHEN b.completed THEN 'COMPLETED' ELSE 'IN_PROGRESS' END,
+                       b.started_at,
+                       CASE WHEN b.completed THEN b.completed_at END,
+                       b.time_spent, b.video_position, 0, now(), now(), 0
+                FROM unnest(?::uuid[], ?::int[], ?::int[], ?::boolean[], ?::timestamptz[], ?::timestamptz[])
+                     AS b(lesson_id, video_position, time_spent, completed, started_at, completed_at)
+                ON CONFLICT (user_id, lesson_id) DO UPDATE SET
+                    time_spent_seconds = COALESCE(lesson_progress.time_spent_seconds, 0) + EXCLUDED.time_spent_seconds,
+                    video_position_seconds = GREATEST(COALESCE(lesson_progress.video_position_seconds, 0),
+                                                      EXCLUDED.video_position_seconds),
+                    status = CASE WHEN lesson_progress.status = 'COMPLETED' OR EXCLUDED.status = 'COMPLETED'
+                                       THEN 'COMPLETED'
+                                  WHEN lesson_progress.status = 'NOT_STARTED' THEN 'IN_PROGRESS'
+                                  ELSE lesson_progress.status END,
+                    started_at = LEAST(COALESCE(lesson_progress.started_at, EXCLUDED.started_at), EXCLUDED.started_at),
+                    completed_at = COALESCE(lesson_progress.completed_at, EXCLUDED.completed_at),
+                    updated_at = EXCLUDED.updated_at,
+                    version = COALESCE(lesson_progress.version, 0) + 1
+                RETURNING lesson_id, status
+            )
+            SELECT u.lesson_id, p.status AS previous_status, u.status
+            FROM upserted u
+            LEFT JOIN previous p ON p.lesson_id = u.lesson_id
+            """;
+
+    // Enrollments are locked first so concurrent syncs / completions serialize per course
+    private static final String RECOUNT_SQL = """
+            WITH locked AS (
+                SELECT course_id, status, progress_percentage
+                FROM enrollments
+                WHERE student_id = ? AND course_id = ANY(?)
+                FOR UPDATE
+            ), stats AS (
+                SELECT c.course_id, c.status AS previous_status, c.progress_percentage AS previous_progress,
+                       (SELECT COUNT(*) FROM lessons l WHERE l.course_id = c.course_id) AS lessons,
+                       (SELECT COUNT(*)
+                        FROM lesson_progress lp
+                        JOIN lessons l ON l.id = lp.lesson_id
+                        WHERE lp.user_id = ? AND l.course_id = c.course_id AND lp.status = 'COMPLETED') AS completed
+                FROM locked c
+            )
+            UPDATE enrollments e
+            SET lessons_completed = stats.completed,
+                progress_percentage = CASE WHEN stats.lessons = 0 THEN 0
+                                           ELSE LEAST(100, ROUND(stats.completed * 100.0 / stats.lessons, 2)) END,
+                status = CASE WHEN stats.lessons > 0 AND stats.completed >= stats.lessons AND e.status = 'ACTIVE'
+                              THEN 'COMPLETED' ELSE e.status END,
+                completed_at = CASE WHEN stats.lessons > 0 AND stats.completed >= stats.lessons AND e.status = 'ACTIVE'
+                                    THEN now() ELSE e.completed_at END,
+                last_accessed_at = now(),
+                updated_at = now(),
+                version = COALESCE(e.version, 0) + 1
+            FROM stats
+            WHERE e.student_id = ? AND e.course_id = stats.course_id
+            RETURNING e.course_id, stats.previous_status, e.status, stats.previous_progress, e.progress_percentage
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CourseProgressRollups progressRollups;
+    private final LearningEventAppender learningEvents;
+    private final VideoEngagementAggregator engagementAggregator;
+    private final EnrollmentMembershipIndex membershipIndex;
+    private final Duration keyRetention;
+
+    public ProgressSyncWriter(JdbcTemplate jdbcTemplate,
+                              CourseProgressRollups progressRollups,
+                              LearningEventAppender learningEvents,
+                              VideoEngagementAggregator engagementAggregator,
+                              EnrollmentMembershipIndex membershipIndex,
+                              @Value("${app.progress.sync.key-retention:30d}") Duration keyRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.progressRollups = progressRollups;
+        this.learningEvents = learningEvents;
+        this.engagementAggregator = engagementAggregator;
+        this.membershipIndex = membershipIndex;
+        this.keyRetention = keyRetention;
+    }
+
+    /**
+     * Apply a batch for one user inside the current transaction
+     */
+    public Result apply(UUID userId, List<ProgressSyncRequest.Event> events) {
+        Instant now = Instant.now();
+
+        // 1. Dedupe within the batch (first occurrence of a key wins)
+        Map<String, ProgressSyncRequest.Event> unique = new LinkedHashMap<>();
+        for (ProgressSyncRequest.Event event : events) {
+            unique.putIfAbsent(event.getIdempotencyKey(), event);
+        }
+        int duplicates = events.size() - unique.size();
+
+        // 2. Keep only lessons of courses the user is enrolled in
+        Set<UUID> lessonIds = new HashSet<>();
+        unique.values().forEach(event -> lessonIds.add(event.getLessonId()));
+        Map<UUID, UUID> lessonCourses = resolveLessonCourses(userId, lessonIds);
+
+        List<String> rejected = new ArrayList<>();
+        List<String> candidateKeys = new ArrayList<>();
+        for (Map.Entry<String, ProgressSyncRequest.Event> entry : unique.entrySet()) {
+            if (lessonCourses.containsKey(entry.getValue().getLessonId())) {
+                candidateKeys.add(entry.getKey());
+            } else {
+                rejected.add(entry.getKey());
+            }
+        }
+        if (candidateKeys.isEmpty()) {
+            return new Result(events.size(), 0, duplicates, rejected, Set.of(), Set.of(), Set.of());
+        }
+
+        // 3. Claim keys; keys already applied by an earlier sync are duplicates
+        Set<String> claimed = new HashSet<>(claimKeys(userId, candidateKeys));
+        duplicates += candidateKeys.size() - claimed.size();
+        if (claimed.isEmpty()) {
+            return new Result(events.size(), 0, duplicates, rejected, Set.of(), Set.of(), Set.of());
+        }
+
+        // 4. Merge the new events per lesson
+        Map<UUID, Merged> merged = new LinkedHashMap<>();
+        for (String key : claimed) {
+            ProgressSyncRequest.Event event = unique.get(key);
+            Instant at = event.getClientTimestamp().isAfter(now) ? now : event.getClientTimestamp();
+            merged.computeIfAbsent(event.getLessonId(), id -> new Merged()).add(event, at);
+            engagementAggregator.record(event.getLessonId(), event.getVideoPosition(), event.getTimeSpent());
+            learningEvents.append(userId, lessonCourses.get(event.getLessonId()), event.getLessonId(),
+                    Boolean.TRUE.equals(event.getCompleted()) ? LearningEventType.LESSON_COMPLETED : LearningEventType.HEARTBEAT,
+                    event.getTimeSpent() != null ? event.getTimeSpent() : 0, event.getVideoPosition(), at);
+        }
+
+        // 5. One upsert for all lessons, 6. one recount for all affected courses
+        upsert(userId, merged, lessonCourses);
+        Set<UUID> courseIds = new HashSet<>();
+        merged.keySet().forEach(lessonId -> courseIds.add(lessonCourses.get(lessonId)));
+        Set<UUID> completedCourses = recount(userId, courseIds);
+
+        log.debug("Synced {} progress event(s) for user {} across {} lesson(s)", claimed.size(), userId, merged.size());
+        return new Result(events.size(), claimed.size(), duplicates, rejected, merged.keySet(), courseIds,
+                completedCourses);
+    }
+
+    /**
+     * Purge idempotency keys older than the retention window; clients replay within hours, not weeks
+     */
+    @Scheduled(cron = "${app.progress.sync.key-cleanup-cron:0 30 3 * * *}")
+    public void purgeExpiredKeys() {
+        int deleted = jdbcTemplate.update("DELETE FROM progress_sync_keys WHERE created_at < ?",
+                Timestamp.from(Instant.now().minus(keyRetention)));
+        if (deleted > 0) {
+            log.info("Purged {} expired progress sync key(s)", deleted);
+        }
+    }
+
+    private Map<UUID, UUID> resolveLessonCourses(UUID userId, Collection<UUID> lessonIds) {
+        Map<UUID, UUID> lessonCourses = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(RESOLVE_LESSONS_SQL);
+            ps.setArray(1, uuidArray(con, lessonIds));
+            return ps;
+        }, rs -> {
+            lessonCourses.put(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class));
+        });
+
+        // One membership check per distinct course of the batch
+        Map<UUID, Boolean> enrolled = new HashMap<>();
+        lessonCourses.values().removeIf(courseId ->
+                !enrolled.computeIfAbsent(courseId, id -> membershipIndex.isMember(userId, id)));
+        return lessonCourses;
+    }
+
+    private List<String> claimKeys(UUID userId, List<String> keys) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CLAIM_KEYS_SQL);
+            ps.setObject(1, userId);
+            ps.setArray(2, con.createArrayOf("varchar", keys.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1));
+    }
+
+    private void upsert(UUID userId, Map<UUID, Merged> merged, Map<UUID, UUID> lessonCourses) {
+        int size = merged.size();
+        Object[] lessonIds = new Object[size];
+        Object[] positions = new Object[size];
+        Object[] timeSpent = new Object[size];
+        Object[] completed = new Object[size];
+        Object[] startedAt = new Object[size];
+        Object[] completedAt = new Object[size];
+
+        int i = 0;
+        for (Map.Entry<UUID, Merged> entry : merged.entrySet()) {
+            Merged lesson = entry.getValue();
+            lessonIds[i] = entry.getKey();
+            positions[i] = lesson.maxPosition;
+            timeSpent[i] = lesson.timeSpent;
+            completed[i] = lesson.completedAt != null;
+            startedAt[i] = Timestamp.from(lesson.firstSeenAt);
+            completedAt[i] = lesson.completedAt != null ? Timestamp.from(lesson.completedAt) : null;
+            i++;
+        }
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT_SQL);
+            ps.setObject(1, userId);
+            ps.setArray(2, con.createArrayOf("uuid", lessonIds));
+            ps.setObject(3, userId);
+            ps.setArray(4, con.createArrayOf("uuid", lessonIds));
+            ps.setArray(5, con.createArrayOf("int4", positions));
+            ps.setArray(6, con.createArrayOf("int4", timeSpent));
+            ps.setArray(7, con.createArrayOf("bool", completed));
+            ps.setArray(8, con.createArrayOf("timestamptz", startedAt));
+            ps.setArray(9, con.createArrayOf("timestamptz", completedAt));
+            return ps;
+        }, rs -> {
+            UUID lessonId = rs.getObject(1, UUID.class);
+            UUID courseId = lessonCourses.get(lessonId);
+            String previousStatus = rs.getString(2);
+            if (previousStatus == null || "NOT_STARTED".equals(previousStatus)) {
+                progressRollups.lessonStarted(courseId, lessonId);
+                learningEvents.append(userId, courseId, lessonId, LearningEventType.LESSON_STARTED, 0, null,
+                        merged.get(lessonId).firstSeenAt);
+            }
+            if (!"COMPLETED".equals(previousStatus) && "COMPLETED".equals(rs.getString(3))) {
+                progressRollups.lessonCompleted(courseId, lessonId, null);
+            }
+            progressRollups.timeSpent(courseId, lessonId, merged.get(lessonId).timeSpent);
+        });
+    }
+
+    /**
+     * Recount the user's enrollments in the given courses; returns courses completed by this batch
+     */
+    private Set<UUID> recount(UUID userId, Collection<UUID> courseIds) {
+        Set<UUID> completedCourses = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(RECOUNT_SQL);
+            ps.setObject(1, userId);
+            ps.setArray(2, uuidArray(con, courseIds));
+            ps.setObject(3, userId);
+            ps.setObject(4, userId);
+            return ps;
+        }, rs -> {
+            UUID courseId = rs.getObject(1, UUID.class);
+            if (!"COMPLETED".equals(rs.getString(2)) && "COMPLETED".equals(rs.getString(3))) {
+                completedCourses.add(courseId);
+            }
+            progressRollups.enrollmentChanged(courseId,
+                    EnrollmentState.of(rs.getString(2), rs.getBigDecimal(4)),
+                    EnrollmentState.of(rs.getString(3), rs.getBigDecimal(5)));
+        });
+        return completedCourses;
+    }
+
+    private static Array uuidArray(Connection con, Collection<UUID> ids) throws SQLException {
+        return con.createArrayOf("uuid", ids.toArray());
+    }
+
+    private static final class Merged {
+        private int maxPosition;
+        private int timeSpent;
+        private Instant firstSeenAt;
+        private Instant completedAt;
+
+        void add(ProgressSyncRequest.Event event, Instant at) {
+            if (event.getVideoPosition() != null) {
+                maxPosition = Math.max(maxPosition, event.getVideoPosition());
+            }
+            if (event.getTimeSpent() != null) {
+                timeSpent += event.getTimeSpent();
+            }
+            if (firstSeenAt == null || at.isBefore(firstSeenAt)) {
+                firstSeenAt = at;
+            }
+            if (Boolean.TRUE.equals(event.getCompleted()) && (completedAt == null || at.isBefore(completedAt))) {
+                completedAt = at;
+            }
+        }
+    }
+
+    /**
+     * Counts for the response plus what the caller needs to publish follow-up work
+     */
+    public record Result(int received, int applied, int duplicates, List<String> rejectedKeys,
+                         Set<UUID> lessonIds, Set<UUID> courseIds, Set<UUID> completedCourseIds) {
+    }
+}
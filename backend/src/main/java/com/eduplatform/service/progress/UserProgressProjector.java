@@ -0,0 +1,190 @@
+package com.eduplatform.service.progress;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * User Progress Projector
+ * Maintains user_progress as a denormalized read model of enrollments and lesson_progress.
+ * LessonProgressChangedEvents mark (user, course) pairs dirty after the writing transaction
+ * commits; a scheduled pass recomputes each dirty row from the source tables with one upsert.
+ * Because every refresh recomputes the whole row, handling an event twice, out of order or
+ * after a missed one converges to the same state. The backfill rebuilds every row and repairs
+ * anything lost while a node was down.
+ */
+@Slf4j
+@Component
+public class UserProgressProjector {
+
+    private static final int REFRESH_CHUNK_SIZE = 200;
+    private static final int BACKFILL_PAGE_SIZE = 500;
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private static final String UPSERT_TEMPLATE = """
+            INSERT INTO user_progress (id, user_id, course_id, enrollment_id, status, progress_percentage,
+                                       lessons_completed, total_lessons, total_time_spent, last_lesson_id,
+                                       completed_at, created_at, updated_at, version)
+            SELECT gen_random_uuid(), e.student_id, e.course_id, e.id,
+                   CASE WHEN totals.lessons > 0 AND stats.completed >= totals.lessons THEN 'COMPLETED'
+                        WHEN stats.started > 0 THEN 'IN_PROGRESS'
+                        ELSE 'NOT_STARTED' END,
+                   CASE WHEN totals.lessons = 0 THEN 0
+                        ELSE LEAST(100, ROUND(stats.completed * 100.0 / totals.lessons, 2)) END,
+                   stats.completed,
+                   totals.lessons,
+                   stats.time_spent_seconds / 60,
+                   last_lesson.lesson_id::text,
+                   CASE WHEN totals.lessons > 0 AND stats.completed >= totals.lessons
+                        THEN stats.last_completed_at END,
+                   now(), now(), 0
+            FROM enrollments e
+            CROSS JOIN LATERAL (
+                SELECT COUNT(*) AS lessons FROM lessons l WHERE l.course_id = e.course_id
+            ) totals
+            CROSS JOIN LATERAL (
+                SELECT COUNT(*) FILTER (WHERE lp.status = 'COMPLETED') AS completed,
+                       COUNT(*) FILTER (WHERE lp.status <> 'NOT_STARTED') AS started,
+                       COALESCE(SUM(lp.time_spent_seconds), 0) AS time_spent_seconds,
+                       MAX(lp.completed_at) AS last_completed_at
+                FROM lesson_progress lp
+                JOIN lessons l ON l.id = lp.lesson_id
+                WHERE lp.user_id = e.student_id AND l.course_id = e.course_id
+            ) stats
+            LEFT JOIN LATERAL (
+                SELECT lp.lesson_id
+                FROM lesson_progress lp
+                JOIN lessons l ON l.id = lp.lesson_id
+                WHERE lp.user_id = e.student_id AND l.course_id = e.course_id
+                ORDER BY lp.updated_at DESC NULLS LAST
+                LIMIT 1
+            ) last_lesson ON TRUE
+            WHERE %s
+            ON CONFLICT (user_id, course_id) DO UPDATE SET
+                enrollment_id = EXCLUDED.enrollment_id,
+                status = EXCLUDED.status,
+                progress_percentage = EXCLUDED.progress_percentage,
+                lessons_completed = EXCLUDED.lessons_completed,
+                total_lessons = EXCLUDED.total_lessons,
+                total_time_spent = EXCLUDED.total_time_spent,
+                last_lesson_id = EXCLUDED.last_lesson_id,
+                completed_at = EXCLUDED.completed_at,
+                updated_at = EXCLUDED.updated_at,
+                version = COALESCE(user_progress.version, 0) + 1
+            WHERE (user_progress.status, user_progress.progress_percentage, user_progress.lessons_completed,
+                   user_progress.total_lessons, user_progress.total_time_spent, user_progress.last_lesson_id)
+                  IS DISTINCT FROM
+                  (EXCLUDED.status, EXCLUDED.progress_percentage, EXCLUDED.lessons_completed,
+                   EXCLUDED.total_lessons, EXCLUDED.total_time_spent, EXCLUDED.last_lesson_id)
+            """;
+
+    private static final String REFRESH_SQL = UPSERT_TEMPLATE.formatted("e.student_id = ? AND e.course_id = ?");
+    private static final String BACKFILL_SQL = UPSERT_TEMPLATE.formatted("e.id > ? AND e.id <= ?");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Set<Key> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    public UserProgressProjector(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Runs after the publishing transaction commits (or immediately when there is none)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLessonProgressChanged(LessonProgressChangedEvent event) {
+        if (event.userId() != null && event.courseId() != null) {
+            dirty.add(new Key(event.userId(), event.courseId()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.progress.read-model.refresh-interval-ms:2000}")
+    public void refreshPending() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        List<Key> batch = new ArrayList<>(dirty.size());
+        for (Key key : dirty) {
+            if (dirty.remove(key)) {
+                batch.add(key);
+            }
+        }
+
+        for (int from = 0; from < batch.size(); from += REFRESH_CHUNK_SIZE) {
+            List<Key> chunk = batch.subList(from, Math.min(from + REFRESH_CHUNK_SIZE, batch.size()));
+            try {
+                jdbcTemplate.batchUpdate(REFRESH_SQL, chunk.stream()
+                        .map(key -> new Object[]{key.userId(), key.courseId()})
+                        .toList());
+            } catch (Exception e) {
+                // Refreshes are idempotent, so the whole chunk is simply retried next pass
+                log.warn("Failed to refresh {} user progress row(s), will retry: {}", chunk.size(), e.getMessage());
+                dirty.addAll(chunk);
+            }
+        }
+        log.debug("Refreshed {} user progress row(s)", batch.size());
+    }
+
+    /**
+     * Recompute one row now (used by explicit repairs)
+     */
+    public void refresh(UUID userId, UUID courseId) {
+        jdbcTemplate.update(REFRESH_SQL, userId, courseId);
+    }
+
+    public boolean isBackfillRunning() {
+        return backfillRunning.get();
+    }
+
+    /**
+     * Rebuild the read model for every enrollment, one page of enrollment ids per statement
+     */
+    @Async
+    public void backfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            log.info("User progress backfill already running");
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            UUID lastId = MIN_UUID;
+            int enrollments = 0;
+            int rows = 0;
+            while (true) {
+                List<UUID> page = jdbcTemplate.queryForList(
+                        "SELECT id FROM enrollments WHERE id > ? ORDER BY id LIMIT ?",
+                        UUID.class, lastId, BACKFILL_PAGE_SIZE);
+                if (page.isEmpty()) {
+                    break;
+                }
+                UUID pageEnd = page.get(page.size() - 1);
+                rows += jdbcTemplate.update(BACKFILL_SQL, lastId, pageEnd);
+                enrollments += page.size();
+                lastId = pageEnd;
+            }
+            log.info("User progress backfill finished: {} enrollment(s), {} row(s) changed in {} ms",
+                    enrollments, rows, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("User progress backfill failed: {}", e.getMessage(), e);
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    private record Key(UUID userId, UUID courseId) {
+    }
+}
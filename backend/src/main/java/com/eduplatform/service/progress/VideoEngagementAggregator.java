@@ -0,0 +1,216 @@
+package com.eduplatform.service.progress;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Video Engagement Aggregator
+ * Folds player heartbeats into per-lesson histograms of fixed-width position bins: a heartbeat
+ * at position p after w watched seconds adds one to every bin in [p - w, p). Counts accumulate
+ * in primitive arrays on each node and are flushed as deltas that the database adds element-wise
+ * to the stored histogram, so every node's contribution is merged without coordination. Reads
+ * return one stored row plus this node's unflushed counts; raw events are never scanned.
+ */
+@Slf4j
+@Component
+public class VideoEngagementAggregator {
+
+    public static final int BIN_WIDTH_SECONDS = 5;
+    private static final int MAX_BINS = 8640; // 12 hours of video
+    private static final int MAX_SPAN_SECONDS = 300; // longer gaps between heartbeats are not credited
+
+    // Element-wise addition of the delta; the shorter array is padded with NULLs by unnest
+    private static final String MERGE_SQL = """
+            INSERT INTO lesson_engagement_histograms (lesson_id, bin_width_seconds, bins, updated_at)
+            VALUES (?, ?, ?, now())
+            ON CONFLICT (lesson_id) DO UPDATE SET
+                bins = ARRAY(SELECT COALESCE(t.stored, 0) + COALESCE(t.delta, 0)
+                             FROM unnest(lesson_engagement_histograms.bins, EXCLUDED.bins)
+                                  WITH ORDINALITY AS t(stored, delta, i)
+                             ORDER BY t.i),
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<UUID, Histogram> pending = new ConcurrentHashMap<>();
+
+    public VideoEngagementAggregator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Fold one heartbeat into the lesson's histogram once the current transaction commits, so
+     * heartbeats of rolled-back writes are never counted; heartbeats without a position are ignored
+     */
+    public void record(UUID lessonId, Integer positionSeconds, Integer watchedSeconds) {
+        if (lessonId == null || positionSeconds == null || positionSeconds < 0) {
+            return;
+        }
+        int watched = watchedSeconds != null ? Math.min(Math.max(watchedSeconds, 0), MAX_SPAN_SECONDS) : 0;
+        int lastBin = Math.min(Math.max(positionSeconds - 1, 0) / BIN_WIDTH_SECONDS, MAX_BINS - 1);
+        int firstBin = Math.min(Math.max(positionSeconds - watched, 0) / BIN_WIDTH_SECONDS, lastBin);
+        afterCommit(() -> addToPending(lessonId, firstBin, lastBin));
+    }
+
+    private void addToPending(UUID lessonId, int firstBin, int lastBin) {
+        // A histogram detached by a concurrent flush is closed; retry on the fresh one
+        while (!pending.computeIfAbsent(lessonId, id -> new Histogram()).add(firstBin, lastBin)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Stored histogram merged with this node's pending counts
+     */
+    public long[] getHistogram(UUID lessonId) {
+        List<long[]> stored = jdbcTemplate.query(
+                "SELECT bins FROM lesson_engagement_histograms WHERE lesson_id = ?",
+                (rs, rowNum) -> toLongs(rs.getArray(1)), lessonId);
+        long[] bins = stored.isEmpty() ? new long[0] : stored.get(0);
+
+        Histogram local = pending.get(lessonId);
+        return local != null ? add(bins, local.snapshot()) : bins;
+    }
+
+    @Scheduled(fixedDelayString = "${app.progress.engagement.flush-interval-ms:10000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<UUID, long[]>> batch = new ArrayList<>(pending.size());
+        for (UUID lessonId : pending.keySet()) {
+            Histogram histogram = pending.remove(lessonId);
+            if (histogram != null) {
+                batch.add(Map.entry(lessonId, histogram.close()));
+            }
+        }
+
+        for (Map.Entry<UUID, long[]> entry : batch) {
+            try {
+                jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(MERGE_SQL);
+                    ps.setObject(1, entry.getKey());
+                    ps.setInt(2, BIN_WIDTH_SECONDS);
+                    ps.setArray(3, con.createArrayOf("int8", Arrays.stream(entry.getValue()).boxed().toArray()));
+                    return ps;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // The lesson was deleted in the meantime
+                log.debug("Dropping engagement counts for lesson {}: {}", entry.getKey(), e.getMessage());
+            } catch (Exception e) {
+                log.warn("Failed to flush engagement counts for lesson {}, will retry: {}",
+                        entry.getKey(), e.getMessage());
+                requeue(entry.getKey(), entry.getValue());
+            }
+        }
+        log.debug("Flushed engagement histograms for {} lesson(s)", batch.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing engagement histograms for {} lesson(s) on shutdown", pending.size());
+        flush();
+    }
+
+    private void requeue(UUID lessonId, long[] counts) {
+        while (!pending.computeIfAbsent(lessonId, id -> new Histogram()).addAll(counts)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static long[] toLongs(Array array) throws SQLException {
+        Object[] values = (Object[]) array.getArray();
+        long[] bins = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bins[i] = values[i] != null ? ((Number) values[i]).longValue() : 0L;
+        }
+        return bins;
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        long[] sum = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++) {
+            sum[i] += b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Growable per-node bin counters for one lesson
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Histogram {
+
+        private long[] bins = new long[64];
+        private int length;
+        private boolean closed;
+
+        synchronized boolean add(int firstBin, int lastBin) {
+            if (closed) {
+                return false;
+            }
+            ensureLength(lastBin + 1);
+            for (int i = firstBin; i <= lastBin; i++) {
+                bins[i]++;
+            }
+            return true;
+        }
+
+        synchronized boolean addAll(long[] counts) {
+            if (closed) {
+                return false;
+            }
+            ensureLength(counts.length);
+            for (int i = 0; i < counts.length; i++) {
+                bins[i] += counts[i];
+            }
+            return true;
+        }
+
+        synchronized long[] snapshot() {
+            return Arrays.copyOf(bins, length);
+        }
+
+        synchronized long[] close() {
+            closed = true;
+            return Arrays.copyOf(bins, length);
+        }
+
+        private void ensureLength(int required) {
+            if (required > bins.length) {
+                bins = Arrays.copyOf(bins, Math.max(required, bins.length * 2));
+            }
+            length = Math.max(length, required);
+        }
+    }
+}
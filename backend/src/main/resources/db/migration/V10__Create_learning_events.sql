@@ -0,0 +1,41 @@
+-- ===========================================
+-- V10__Create_learning_events.sql
+-- Append-only learning activity log, range partitioned by month
+-- ===========================================
+
+CREATE TABLE IF NOT EXISTS learning_events (
+    id BIGSERIAL,
+    user_id UUID NOT NULL,
+    course_id UUID,
+    lesson_id UUID,
+    event_type VARCHAR(30) NOT NULL,
+    time_spent_seconds INTEGER NOT NULL DEFAULT 0,
+    video_position_seconds INTEGER,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    recorded_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    -- The partition key must be part of the primary key
+    CONSTRAINT pk_learning_events PRIMARY KEY (id, occurred_at),
+    CONSTRAINT chk_learning_events_type
+        CHECK (event_type IN ('ENROLLED', 'LESSON_STARTED', 'HEARTBEAT', 'LESSON_COMPLETED', 'COURSE_COMPLETED')),
+    CONSTRAINT chk_learning_events_time_positive CHECK (time_spent_seconds >= 0)
+) PARTITION BY RANGE (occurred_at);
+
+-- Per-user time range scans; created on every partition
+CREATE INDEX IF NOT EXISTS idx_learning_events_user_occurred ON learning_events (user_id, occurred_at);
+
+-- Partitions for the current and next two months; later ones are created by the application
+-- (LearningEventPartitionManager), which also drops partitions past retention
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR i IN 0..2 LOOP
+        month_start := (date_trunc('month', CURRENT_DATE) + make_interval(months => i))::date;
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF learning_events FOR VALUES FROM (%L) TO (%L)',
+            'learning_events_' || to_char(month_start, '"y"YYYY"m"MM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::date);
+    END LOOP;
+END $$;
@@ -0,0 +1,16 @@
+-- ===========================================
+-- V11__Create_lesson_engagement_histograms.sql
+-- Per-lesson video engagement histograms (views per fixed-width position bin)
+-- ===========================================
+
+CREATE TABLE IF NOT EXISTS lesson_engagement_histograms (
+    lesson_id UUID NOT NULL,
+    bin_width_seconds INTEGER NOT NULL,
+    -- bins[i] counts heartbeats covering [(i - 1) * width, i * width) seconds; nodes add their deltas
+    bins BIGINT[] NOT NULL DEFAULT '{}',
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_lesson_engagement_histograms PRIMARY KEY (lesson_id),
+    CONSTRAINT fk_lesson_engagement_histograms_lesson FOREIGN KEY (lesson_id) REFERENCES lessons(id) ON DELETE CASCADE,
+    CONSTRAINT chk_lesson_engagement_bin_width CHECK (bin_width_seconds > 0)
+);
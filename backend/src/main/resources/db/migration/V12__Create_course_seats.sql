@@ -0,0 +1,22 @@
+-- ===========================================
+-- V12__Create_course_seats.sql
+-- Per-course seat counter for capacity-limited enrollment
+-- ===========================================
+
+-- Every enrollment that is not DROPPED holds a seat; capacity is courses.max_students (NULL = unlimited)
+CREATE TABLE IF NOT EXISTS course_seats (
+    course_id UUID NOT NULL,
+    seats_taken INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_course_seats PRIMARY KEY (course_id),
+    CONSTRAINT fk_course_seats_course FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
+    CONSTRAINT chk_course_seats_taken_positive CHECK (seats_taken >= 0)
+);
+
+INSERT INTO course_seats (course_id, seats_taken)
+SELECT c.id, COUNT(e.id) FILTER (WHERE e.status <> 'DROPPED')
+FROM courses c
+LEFT JOIN enrollments e ON e.course_id = c.id
+GROUP BY c.id
+ON CONFLICT (course_id) DO NOTHING;
@@ -0,0 +1,11 @@
+-- ===========================================
+-- V4__Add_lower_email_index.sql
+-- Case-insensitive email lookups
+-- ===========================================
+
+-- Login, user details loading and profile lookups compare LOWER(email);
+-- the plain index on email cannot serve those predicates.
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_email_lower ON users (LOWER(email));
+
+-- Redundant with the UNIQUE constraint index on users(email)
+DROP INDEX IF EXISTS idx_users_email;
@@ -0,0 +1,30 @@
+-- ===========================================
+-- V5_1__Align_lesson_progress_columns.sql
+-- lesson_progress column names as mapped by LessonProgress
+-- ===========================================
+
+-- lesson_progress columns were created under different names than the entity maps
+-- (time_spent_seconds, video_position_seconds, attempts); align them so the native SQL of the
+-- heartbeat buffer, completion counter, read model and sync writer reads the same columns.
+-- Skipped where the entity names already exist (e.g. schemas created by ddl-auto).
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'lesson_progress' AND column_name = 'time_spent')
+       AND NOT EXISTS (SELECT 1 FROM information_schema.columns
+                       WHERE table_name = 'lesson_progress' AND column_name = 'time_spent_seconds') THEN
+        ALTER TABLE lesson_progress RENAME COLUMN time_spent TO time_spent_seconds;
+    END IF;
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'lesson_progress' AND column_name = 'video_position')
+       AND NOT EXISTS (SELECT 1 FROM information_schema.columns
+                       WHERE table_name = 'lesson_progress' AND column_name = 'video_position_seconds') THEN
+        ALTER TABLE lesson_progress RENAME COLUMN video_position TO video_position_seconds;
+    END IF;
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'lesson_progress' AND column_name = 'attempts_count')
+       AND NOT EXISTS (SELECT 1 FROM information_schema.columns
+                       WHERE table_name = 'lesson_progress' AND column_name = 'attempts') THEN
+        ALTER TABLE lesson_progress RENAME COLUMN attempts_count TO attempts;
+    END IF;
+END $$;
@@ -0,0 +1,9 @@
+-- ===========================================
+-- V5__Add_user_totp.sql
+-- TOTP (RFC 6238) second factor
+-- ===========================================
+
+-- Base32 TOTP secret, AES-GCM encrypted by the application (never stored in clear)
+ALTER TABLE users ADD COLUMN IF NOT EXISTS mfa_totp_secret VARCHAR(255);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS mfa_totp_enabled BOOLEAN DEFAULT FALSE;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS mfa_totp_enabled_at TIMESTAMP;
@@ -0,0 +1,23 @@
+-- ===========================================
+-- V6__Add_enrollment_lesson_counter.sql
+-- Incremental completed-lesson counter on enrollments
+-- ===========================================
+
+-- Maintained with an atomic increment on each first-time lesson completion
+ALTER TABLE enrollments ADD COLUMN IF NOT EXISTS lessons_completed INTEGER NOT NULL DEFAULT 0;
+
+-- Backfill from existing lesson progress
+UPDATE enrollments e
+SET lessons_completed = counts.completed
+FROM (
+    SELECT lp.user_id, l.course_id, COUNT(*) AS completed
+    FROM lesson_progress lp
+    JOIN lessons l ON l.id = lp.lesson_id
+    WHERE lp.status = 'COMPLETED'
+    GROUP BY lp.user_id, l.course_id
+) counts
+WHERE e.student_id = counts.user_id
+  AND e.course_id = counts.course_id;
+
+ALTER TABLE enrollments ADD CONSTRAINT chk_enrollments_lessons_completed_positive
+    CHECK (lessons_completed >= 0);
@@ -0,0 +1,17 @@
+-- ===========================================
+-- V7__Add_user_progress_unique_key.sql
+-- One user_progress read-model row per (user, course)
+-- ===========================================
+
+-- Keep the most recently updated row if duplicates exist
+DELETE FROM user_progress
+WHERE id NOT IN (
+    SELECT DISTINCT ON (user_id, course_id) id
+    FROM user_progress
+    ORDER BY user_id, course_id, updated_at DESC NULLS LAST
+);
+
+ALTER TABLE user_progress ADD CONSTRAINT uk_user_progress_user_course UNIQUE (user_id, course_id);
+
+-- Covered by the unique key's leading column
+DROP INDEX IF EXISTS idx_user_progress_user;
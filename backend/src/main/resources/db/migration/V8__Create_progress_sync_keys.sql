@@ -0,0 +1,16 @@
+-- ===========================================
+-- V8__Create_progress_sync_keys.sql
+-- Idempotency keys of applied offline progress events
+-- ===========================================
+
+CREATE TABLE IF NOT EXISTS progress_sync_keys (
+    user_id UUID NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_progress_sync_keys PRIMARY KEY (user_id, idempotency_key),
+    CONSTRAINT fk_progress_sync_keys_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Expired keys are purged by age
+CREATE INDEX IF NOT EXISTS idx_progress_sync_keys_created_at ON progress_sync_keys(created_at);
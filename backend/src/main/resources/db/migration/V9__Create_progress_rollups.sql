@@ -0,0 +1,64 @@
+-- ===========================================
+-- V9__Create_progress_rollups.sql
+-- Pre-aggregated course progress for instructor dashboards
+-- ===========================================
+
+-- Per-(course, lesson) funnel, maintained incrementally and reconciled hourly
+CREATE TABLE IF NOT EXISTS course_lesson_rollups (
+    course_id UUID NOT NULL,
+    lesson_id UUID NOT NULL,
+    started_count BIGINT NOT NULL DEFAULT 0,
+    completed_count BIGINT NOT NULL DEFAULT 0,
+    time_spent_seconds BIGINT NOT NULL DEFAULT 0,
+    score_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    score_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_course_lesson_rollups PRIMARY KEY (course_id, lesson_id),
+    CONSTRAINT fk_course_lesson_rollups_course FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
+    CONSTRAINT fk_course_lesson_rollups_lesson FOREIGN KEY (lesson_id) REFERENCES lessons(id) ON DELETE CASCADE
+);
+
+-- Per-course student totals
+CREATE TABLE IF NOT EXISTS course_progress_rollups (
+    course_id UUID PRIMARY KEY,
+    total_students BIGINT NOT NULL DEFAULT 0,
+    students_in_progress BIGINT NOT NULL DEFAULT 0,
+    students_completed BIGINT NOT NULL DEFAULT 0,
+    progress_sum NUMERIC(16,2) NOT NULL DEFAULT 0,
+    reconciled_at TIMESTAMP WITH TIME ZONE,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_course_progress_rollups_course FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE
+);
+
+-- Reconciliation only revisits rows changed since the previous run
+CREATE INDEX IF NOT EXISTS idx_lesson_progress_updated_at ON lesson_progress(updated_at);
+CREATE INDEX IF NOT EXISTS idx_user_progress_updated_at ON user_progress(updated_at);
+
+-- Initial population from existing progress
+INSERT INTO course_lesson_rollups (course_id, lesson_id, started_count, completed_count,
+                                   time_spent_seconds, score_sum, score_count, updated_at)
+SELECT l.course_id, l.id,
+       COUNT(lp.id) FILTER (WHERE lp.status <> 'NOT_STARTED'),
+       COUNT(lp.id) FILTER (WHERE lp.status = 'COMPLETED'),
+       COALESCE(SUM(lp.time_spent_seconds), 0),
+       COALESCE(SUM(lp.score) FILTER (WHERE lp.status = 'COMPLETED'), 0),
+       COUNT(lp.score) FILTER (WHERE lp.status = 'COMPLETED'),
+       CURRENT_TIMESTAMP
+FROM lessons l
+JOIN lesson_progress lp ON lp.lesson_id = l.id
+GROUP BY l.course_id, l.id
+ON CONFLICT (course_id, lesson_id) DO NOTHING;
+
+INSERT INTO course_progress_rollups (course_id, total_students, students_in_progress, students_completed,
+                                     progress_sum, reconciled_at, updated_at)
+SELECT e.course_id,
+       COUNT(*) FILTER (WHERE e.status <> 'DROPPED'),
+       COUNT(*) FILTER (WHERE e.status = 'ACTIVE' AND e.progress_percentage > 0),
+       COUNT(*) FILTER (WHERE e.status = 'COMPLETED'),
+       COALESCE(SUM(e.progress_percentage) FILTER (WHERE e.status <> 'DROPPED'), 0),
+       CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+FROM enrollments e
+GROUP BY e.course_id
+ON CONFLICT (course_id) DO NOTHING;
@@ -0,0 +1,81 @@
+package com.eduplatform.config.security;
+
+import com.eduplatform.config.security.DistributedRateLimiter.Decision;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GcraRateLimiterTest {
+
+    private final GcraRateLimiter limiter = new GcraRateLimiter(Caffeine.newBuilder().build());
+
+    @Test
+    void admitsABurstOfCapacityThenRejects() {
+        Duration period = Duration.ofMinutes(1);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("client", 10, period).allowed()).isTrue();
+        }
+        Decision rejected = limiter.tryAcquire("client", 10, period);
+
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterMillis()).isPositive();
+        assertThat(limiter.tryAcquire("other-client", 10, period).allowed()).isTrue();
+    }
+
+    @Test
+    void concurrentAcquiresNeverExceedBurstPlusRate() throws Exception {
+        long capacity = 200;
+        Duration period = Duration.ofSeconds(1);
+        long intervalNanos = period.toNanos() / capacity;
+        int threads = 32;
+        long runNanos = TimeUnit.MILLISECONDS.toNanos(750);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong allowed = new AtomicLong();
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    long deadline = System.nanoTime() + runNanos;
+                    while (System.nanoTime() < deadline) {
+                        if (limiter.tryAcquire("shared", capacity, period).allowed()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            ready.await();
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(10, TimeUnit.SECONDS);
+            }
+            long elapsed = System.nanoTime() - started;
+
+            // The burst, plus one cell per emission interval over the (over-measured) run
+            long bound = capacity + elapsed / intervalNanos + 1;
+            assertThat(allowed.get()).isLessThanOrEqualTo(bound);
+            // Contention must not starve the limiter either: at least the burst gets through
+            assertThat(allowed.get()).isGreaterThanOrEqualTo(capacity);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.eduplatform.service.enrollment;
+
+import com.eduplatform.backend.BackendApplication;
+import com.eduplatform.exception.BusinessLogicException;
+import com.eduplatform.service.EnrollmentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = BackendApplication.class)
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class CourseSeatLedgerConcurrencyTest {
+
+    private static final int THREADS = 1000;
+    private static final int MAX_STUDENTS = 50;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    // Point the context at the containers rather than the local development database and Redis
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "20");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+    }
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private CourseSeatLedger seatLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentEnrollmentsNeverOverfillACappedCourse() throws Exception {
+        UUID courseId = createCourse(MAX_STUDENTS);
+        List<UUID> students = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            students.add(createStudent());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (UUID studentId : students) {
+                workers.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    try {
+                        enrollmentService.enrollStudent(studentId, courseId);
+                        admitted.incrementAndGet();
+                    } catch (BusinessLogicException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            ready.await();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(admitted.get()).isEqualTo(MAX_STUDENTS);
+        assertThat(rejected.get()).isEqualTo(THREADS - MAX_STUDENTS);
+        assertThat(seatLedger.getSeatsTaken(courseId)).isEqualTo(countHeldSeats(courseId));
+        assertThat(countHeldSeats(courseId)).isEqualTo(MAX_STUDENTS);
+    }
+
+    @Test
+    void concurrentReservationsStopAtCapacityAndRollbacksGiveSeatsBack() throws Exception {
+        UUID courseId = createCourse(MAX_STUDENTS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    if (seatLedger.reserve(courseId, 1)) {
+                        reserved.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            ready.await();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Bare reservations hold seats without enrollments; the consistency check hands them back
+        assertThat(reserved.get()).isEqualTo(MAX_STUDENTS);
+        assertThat(seatLedger.getSeatsTaken(courseId)).isEqualTo(MAX_STUDENTS);
+        assertThat(seatLedger.reconcile()).isPositive();
+        assertThat(seatLedger.getSeatsTaken(courseId)).isEqualTo(countHeldSeats(courseId)).isZero();
+    }
+
+    private int countHeldSeats(UUID courseId) {
+        Integer held = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM enrollments WHERE course_id = ? AND status <> 'DROPPED'",
+                Integer.class, courseId);
+        return held != null ? held : 0;
+    }
+
+    private UUID createCourse(int maxStudents) {
+        UUID instructorId = createUser("INSTRUCTOR");
+        UUID courseId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO courses (id, title, slug, level, status, max_students, instructor_id, published_at)
+                VALUES (?, ?, ?, 'BEGINNER', 'PUBLISHED', ?, ?, now())
+                """, courseId, "Seat test " + courseId, "seat-test-" + courseId, maxStudents, instructorId);
+        return courseId;
+    }
+
+    private UUID createStudent() {
+        return createUser("STUDENT");
+    }
+
+    private UUID createUser(String role) {
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO users (id, email, password_hash, first_name, last_name, role)
+                VALUES (?, ?, 'not-a-hash', 'Seat', 'Test', ?)
+                """, userId, userId + "@seats.test", role);
+        return userId;
+    }
+}